@@ -0,0 +1,28 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.benchmarks.simulation.Simulation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks whole simulated sessions, from the first block to the last jump.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseBenchmark {
+
+    @Param({"100", "1000"})
+    public int jumps;
+
+    private long seed = 0;
+
+    @Benchmark
+    public Simulation.Result session() {
+        return Simulation.run(seed++, jumps);
+    }
+}
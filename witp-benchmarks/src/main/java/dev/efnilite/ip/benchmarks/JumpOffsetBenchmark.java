@@ -0,0 +1,43 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.generator.JumpOffsetGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link JumpOffsetGenerator}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JumpOffsetBenchmark {
+
+    @Param({"-1", "0", "1"})
+    public int height;
+
+    @Param({"1", "2", "3", "4"})
+    public int distance;
+
+    private final SplittableRandom random = new SplittableRandom(0);
+    private JumpOffsetGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = new JumpOffsetGenerator(height, distance);
+    }
+
+    @Benchmark
+    public int getRandomOffset() {
+        return generator.getRandomOffset(0, 1, random);
+    }
+
+    @Benchmark
+    public int sample() {
+        return JumpOffsetGenerator.sample(height, distance, 1, random);
+    }
+}
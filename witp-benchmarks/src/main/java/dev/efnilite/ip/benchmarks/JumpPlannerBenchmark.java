@@ -0,0 +1,41 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.benchmarks.simulation.Simulation;
+import dev.efnilite.ip.benchmarks.simulation.VoxelWorld;
+import dev.efnilite.ip.generator.Course;
+import dev.efnilite.ip.generator.JumpPlanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks planning a single jump with {@link JumpPlanner}, including all lookups in the jump director.
+ * Should not allocate, which is checked with {@code -prof gc} in the benchmarks workflow.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JumpPlannerBenchmark {
+
+    private JumpPlanner planner;
+
+    @Setup
+    public void setup() {
+        // never plan in the background, so every call plans exactly one jump on the calling thread
+        Course course = Simulation.create(new VoxelWorld(), 0, runnable -> {});
+
+        planner = new JumpPlanner(course, 16, runnable -> {});
+        planner.configure(true);
+        planner.reset(Simulation.SPAWN, 1, 0);
+    }
+
+    @Benchmark
+    public long next() {
+        planner.nextNow();
+
+        return planner.getPosition();
+    }
+}
@@ -0,0 +1,68 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.leaderboard.Leaderboard;
+import dev.efnilite.ip.leaderboard.RankedScore;
+import dev.efnilite.ip.leaderboard.Score;
+import dev.efnilite.ip.menu.community.SingleLeaderboardMenu;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Leaderboard}, using a leaderboard that is only kept in memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private final SplittableRandom random = new SplittableRandom(0);
+    private Leaderboard leaderboard;
+    private UUID[] uuids;
+
+    @Setup
+    public void setup() {
+        leaderboard = new Leaderboard("benchmark", SingleLeaderboardMenu.Sort.SCORE, false);
+        uuids = new UUID[size];
+
+        for (int i = 0; i < size; i++) {
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+            leaderboard.put(uuids[i], score(i));
+        }
+    }
+
+    @Benchmark
+    public Score put() {
+        int i = random.nextInt(size);
+
+        return leaderboard.put(uuids[i], score(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public int getRank() {
+        return leaderboard.getRank(uuids[random.nextInt(size)]);
+    }
+
+    @Benchmark
+    public Score getScoreAtRank() {
+        return leaderboard.getScoreAtRank(1 + random.nextInt(size));
+    }
+
+    @Benchmark
+    public List<RankedScore> getRange() {
+        return leaderboard.getRange(SingleLeaderboardMenu.Sort.SCORE, 1 + random.nextInt(size), 18);
+    }
+
+    private Score score(int value) {
+        return new Score("player" + value, value * 10, 0.5f, value);
+    }
+}
@@ -0,0 +1,41 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.util.Probs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Probs}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProbsBenchmark {
+
+    // same shape as the jump type distribution of the generator
+    private final Map<Integer, Double> distribution = new LinkedHashMap<>();
+
+    @Setup
+    public void setup() {
+        distribution.put(0, 0.8);
+        distribution.put(1, 0.05);
+        distribution.put(2, 0.1);
+        distribution.put(3, 0.05);
+    }
+
+    @Benchmark
+    public double random() {
+        return Probs.random();
+    }
+
+    @Benchmark
+    public Integer randomDistribution() {
+        return Probs.random(distribution);
+    }
+}
@@ -0,0 +1,108 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.benchmarks.stub.StubServer;
+import dev.efnilite.ip.schematic.io.SchematicPaster;
+import dev.efnilite.ip.schematic.io.SchematicReader;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for {@link SchematicReader} and {@link SchematicPaster} on the bundled parkour schematics.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchematicBenchmark {
+
+    @Param({"0", "90", "180", "270"})
+    public int degrees;
+
+    private final SchematicReader reader = new SchematicReader();
+    private final SchematicPaster paster = new SchematicPaster();
+    private final List<File> files = new ArrayList<>();
+    private final List<Map<Vector, BlockData>> schematics = new ArrayList<>();
+    private Path folder;
+
+    @Setup
+    public void setup() throws IOException, URISyntaxException {
+        StubServer.install();
+
+        folder = Files.createTempDirectory("ip-schematics");
+
+        // copy the schematics out of the witp jar, since the reader only accepts files
+        Path source = Path.of(SchematicReader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        if (Files.isDirectory(source)) {
+            copy(source.resolve("schematics"));
+        } else {
+            try (FileSystem jar = FileSystems.newFileSystem(source)) {
+                copy(jar.getPath("schematics"));
+            }
+        }
+
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No bundled schematics found in %s".formatted(source));
+        }
+
+        for (File file : files) {
+            schematics.add(reader.read(file));
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        for (File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+        Files.deleteIfExists(folder);
+    }
+
+    @Benchmark
+    public int read() {
+        int blocks = 0;
+        for (File file : files) {
+            blocks += reader.read(file).size();
+        }
+        return blocks;
+    }
+
+    @Benchmark
+    public int rotate() {
+        double rotation = Math.toRadians(degrees);
+
+        int blocks = 0;
+        for (Map<Vector, BlockData> schematic : schematics) {
+            blocks += paster.rotate(rotation, schematic).size();
+        }
+        return blocks;
+    }
+
+    private void copy(Path schematics) throws IOException {
+        try (Stream<Path> paths = Files.list(schematics)) {
+            for (Path path : paths.filter(path -> path.getFileName().toString().startsWith("parkour-")).sorted().toList()) {
+                Path target = folder.resolve(path.getFileName().toString());
+
+                try (InputStream stream = Files.newInputStream(path)) {
+                    Files.copy(stream, target);
+                }
+
+                files.add(target.toFile());
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.leaderboard.Score;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Score}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreBenchmark {
+
+    private final String serialized = "Efnilite,83:45:678,0.5,1234";
+    private final String legacy = "Efnilite,1h 23m 45.678s,0.5,1234";
+    private final Score score = Score.fromString(serialized);
+
+    @Benchmark
+    public Score fromString() {
+        return Score.fromString(serialized);
+    }
+
+    @Benchmark
+    public Score fromStringLegacy() {
+        return Score.fromString(legacy);
+    }
+
+    @Benchmark
+    public int parseTime() {
+        return Score.parseTime("83:45:678");
+    }
+
+    @Benchmark
+    public String format() {
+        return score.toString();
+    }
+
+    @Benchmark
+    public String timeFromMillis() {
+        return Score.timeFromMillis(5_025_678);
+    }
+}
@@ -0,0 +1,89 @@
+package dev.efnilite.ip.benchmarks;
+
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.leaderboard.Score;
+import dev.efnilite.ip.storage.ScoreChanges;
+import dev.efnilite.ip.storage.StorageSQL;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link StorageSQL}, using an in-memory H2 database in MySQL mode so no server is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class StorageSQLBenchmark {
+
+    private static final String MODE = "benchmark";
+
+    @Param({"1", "100", "1000"})
+    public int batch;
+
+    @Param({"1", "4"})
+    public int pool;
+
+    private final SplittableRandom random = new SplittableRandom(0);
+    private StorageSQL storage;
+    private UUID[] uuids;
+
+    @Setup
+    public void setup() {
+        Option.SQL_PREFIX = "";
+
+        storage = new StorageSQL("jdbc:h2:mem:ip-%d-%d;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1".formatted(batch, pool), "sa", "", pool);
+        storage.init(MODE);
+
+        uuids = new UUID[10_000];
+        Map<UUID, Score> scores = new HashMap<>();
+
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+            scores.put(uuids[i], score(i));
+        }
+
+        storage.writeScores(MODE, scores, scores, Set.of());
+    }
+
+    @TearDown
+    public void teardown() {
+        storage.deleteScores(MODE);
+        storage.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean writeScores() {
+        SplittableRandom random = new SplittableRandom(Thread.currentThread().getId() ^ System.nanoTime());
+        Map<UUID, Score> changed = new HashMap<>();
+
+        for (int i = 0; i < batch; i++) {
+            changed.put(uuids[random.nextInt(uuids.length)], score(random.nextInt(uuids.length)));
+        }
+
+        return storage.writeScores(MODE, changed, changed, Set.of());
+    }
+
+    @Benchmark
+    public Map<UUID, Score> readScores() {
+        return storage.readScores(MODE);
+    }
+
+    @Benchmark
+    public ScoreChanges readChanges() {
+        return storage.readScores(MODE, System.currentTimeMillis());
+    }
+
+    private Score score(int value) {
+        return new Score("player" + value, value * 10, 0.5f, value);
+    }
+}
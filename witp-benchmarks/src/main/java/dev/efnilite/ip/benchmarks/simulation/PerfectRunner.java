@@ -0,0 +1,102 @@
+package dev.efnilite.ip.benchmarks.simulation;
+
+import dev.efnilite.ip.generator.BlockAccess;
+import dev.efnilite.ip.generator.BlockHistory;
+import dev.efnilite.ip.generator.Course;
+
+/**
+ * <p>A simulated player that never falls. Jumps to every placed block of a {@link VoxelWorld} in the order they were placed,
+ * and reports its position to the {@link Course} like the real player would.</p>
+ * <p>Jumps which a real player couldn't make are counted, see {@link #getImpossibleJumps()}.</p>
+ */
+public class PerfectRunner {
+
+    /**
+     * The largest horizontal distance between two blocks at the same height a player can jump.
+     */
+    public static final double MAX_DISTANCE = 5.5;
+
+    /**
+     * The extra horizontal distance a player can jump for every block the jump goes down.
+     */
+    public static final double DROP_DISTANCE = 0.5;
+
+    /**
+     * The largest height difference between two blocks a player can jump.
+     */
+    public static final int MAX_HEIGHT = 1;
+
+    private final Course course;
+    private final VoxelWorld world;
+
+    private long position;
+    private int jumps = 0;
+    private int impossibleJumps = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param course   The course.
+     * @param world    The world of the course.
+     * @param position The packed position the runner starts on.
+     */
+    public PerfectRunner(Course course, VoxelWorld world, long position) {
+        this.course = course;
+        this.world = world;
+        this.position = position;
+    }
+
+    /**
+     * Jumps to the next block.
+     *
+     * @return True when the runner jumped, false if there was no block to jump to.
+     */
+    public boolean jump() {
+        long next;
+        do {
+            next = world.poll();
+
+            if (next == BlockAccess.NONE) {
+                return false;
+            }
+        } while (world.isAir(next)); // removed before the runner got there
+
+        int dx = BlockHistory.unpackX(next) - BlockHistory.unpackX(position);
+        int dy = BlockHistory.unpackY(next) - BlockHistory.unpackY(position);
+        int dz = BlockHistory.unpackZ(next) - BlockHistory.unpackZ(position);
+
+        double reach = MAX_DISTANCE + Math.max(0, -dy) * DROP_DISTANCE;
+
+        if (dy > MAX_HEIGHT || dx * dx + dz * dz > reach * reach) {
+            impossibleJumps++;
+        }
+
+        position = next;
+        jumps++;
+
+        course.progress(position);
+
+        return true;
+    }
+
+    /**
+     * @return The packed position the runner is standing on.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return The amount of jumps made.
+     */
+    public int getJumps() {
+        return jumps;
+    }
+
+    /**
+     * @return The amount of jumps a real player couldn't have made.
+     */
+    public int getImpossibleJumps() {
+        return impossibleJumps;
+    }
+}
@@ -0,0 +1,156 @@
+package dev.efnilite.ip.benchmarks.simulation;
+
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.BlockHistory;
+import dev.efnilite.ip.generator.Course;
+import dev.efnilite.ip.generator.JumpDirector;
+import dev.efnilite.ip.generator.Profile.Setting;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Runs courses in a {@link VoxelWorld} with a {@link PerfectRunner}, without a server.</p>
+ * <p>Uses the defaults of generation.yml. Jumps are planned on the calling thread, so every session only depends on its seed.
+ * Run with {@code java -cp benchmarks.jar dev.efnilite.ip.benchmarks.simulation.Simulation [sessions] [jumps]}.</p>
+ */
+public final class Simulation {
+
+    /**
+     * The packed position every course begins off.
+     */
+    public static final long SPAWN = BlockHistory.pack(0, 150, 0);
+
+    static {
+        Option.SCHEMATIC_COOLDOWN = 20;
+        Option.ALL_POINTS = false;
+    }
+
+    /**
+     * Creates a course with the defaults of generation.yml.
+     *
+     * @param world The world.
+     * @param seed  The seed.
+     * @return The course.
+     */
+    public static Course create(VoxelWorld world, long seed) {
+        return create(world, seed, Runnable::run);
+    }
+
+    /**
+     * Creates a course with the defaults of generation.yml.
+     *
+     * @param world    The world.
+     * @param seed     The seed.
+     * @param planning The executor jumps are planned on.
+     * @return The course.
+     */
+    public static Course create(VoxelWorld world, long seed, Executor planning) {
+        // default border size and height
+        JumpDirector director = new JumpDirector(new BoundingBox(-5000, 100, -5000, 5000, 200, 5000), new Vector(1, 0, 0));
+        Course course = new Course(world, director, seed, List.of(), planning, 16);
+
+        course.defaultChances.put(Course.JumpType.DEFAULT, 0.85);
+        course.defaultChances.put(Course.JumpType.SPECIAL, 0.10);
+        course.defaultChances.put(Course.JumpType.SCHEMATIC, 0.05);
+
+        course.heightChances.put(1, 0.20);
+        course.heightChances.put(0, 0.65);
+        course.heightChances.put(-1, 0.10);
+        course.heightChances.put(-2, 0.05);
+
+        course.distanceChances.put(1, 0.10);
+        course.distanceChances.put(2, 0.55);
+        course.distanceChances.put(3, 0.34);
+        course.distanceChances.put(4, 0.01);
+
+        // ice, slab, pane and fence
+        course.specials.put(new Course.Special(0, Integer.MAX_VALUE, Integer.MAX_VALUE, 0), 0.5);
+        course.specials.put(new Course.Special(1, 0, Integer.MAX_VALUE, 0), 0.3);
+        course.specials.put(new Course.Special(2, Integer.MAX_VALUE, 3, 0), 0.1);
+        course.specials.put(new Course.Special(3, Integer.MAX_VALUE, Integer.MAX_VALUE, -1), 0.1);
+
+        course.profile.set(Setting.BLOCK_LEAD, 4)
+                .set(Setting.USE_SPECIAL_BLOCKS, true)
+                .set(Setting.USE_STRUCTURE, true)
+                .set(Setting.SCHEMATIC_DIFFICULTY, 0.5);
+
+        course.compileChances();
+
+        return course;
+    }
+
+    /**
+     * Runs a single session.
+     *
+     * @param seed  The seed.
+     * @param jumps The amount of jumps the runner makes.
+     * @return The result.
+     */
+    public static Result run(long seed, int jumps) {
+        VoxelWorld world = new VoxelWorld();
+        Course course = create(world, seed);
+        PerfectRunner runner = new PerfectRunner(course, world, SPAWN);
+
+        world.set(SPAWN);
+        course.start(SPAWN);
+
+        while (runner.getJumps() < jumps && runner.jump()) {
+            // keep jumping
+        }
+
+        int score = course.score;
+
+        course.clearCourse();
+        course.stopped = true;
+
+        return new Result(runner.getJumps(), world.getPlacedBlocks(), world.getPastedSchematics(), score, runner.getImpossibleJumps());
+    }
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int jumps = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        long placed = 0;
+        long schematics = 0;
+        long score = 0;
+        long impossible = 0;
+        long stuck = 0;
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < sessions; i++) {
+            Result result = run(i, jumps);
+
+            placed += result.placed();
+            schematics += result.schematics();
+            score += result.score();
+            impossible += result.impossible();
+
+            if (result.jumps() < jumps) {
+                stuck++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%d sessions of %d jumps in %.2f s%n", sessions, jumps, seconds);
+        System.out.printf("blocks: %d (%.0f blocks/s), schematics: %d%n", placed, placed / seconds, schematics);
+        System.out.printf("mean score: %.1f, impossible jumps: %d, stuck sessions: %d%n", score / (double) sessions, impossible, stuck);
+    }
+
+    /**
+     * The result of a session.
+     *
+     * @param jumps      The amount of jumps made by the runner.
+     * @param placed     The amount of placed blocks.
+     * @param schematics The amount of pasted schematics.
+     * @param score      The score at the end of the session.
+     * @param impossible The amount of jumps a real player couldn't have made.
+     */
+    public record Result(int jumps, int placed, int schematics, int score, int impossible) {
+
+    }
+}
@@ -0,0 +1,170 @@
+package dev.efnilite.ip.benchmarks.simulation;
+
+import dev.efnilite.ip.generator.BlockAccess;
+import dev.efnilite.ip.generator.BlockHistory;
+import dev.efnilite.ip.generator.JumpPlanner;
+import dev.efnilite.ip.util.LongIntMap;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>An in-memory world for simulated courses. Blocks are stored as packed positions mapped to their type.</p>
+ * <p>Pasted schematics are straight lines of blocks along the heading, with a gap of one block between them.
+ * All placed blocks are queued in the order they were placed, see {@link #poll()}.</p>
+ */
+public class VoxelWorld implements BlockAccess {
+
+    /**
+     * The type of normal parkour blocks. Special blocks use their index + 1.
+     */
+    public static final int NORMAL = 0;
+
+    /**
+     * The type of schematic blocks.
+     */
+    public static final int SCHEMATIC = Integer.MAX_VALUE;
+
+    private final LongIntMap blocks = new LongIntMap(1024);
+
+    // placed blocks that haven't been polled yet
+    private long[] placed = new long[256];
+    private int head = 0;
+    private int tail = 0;
+
+    // blocks of the last pasted schematic
+    private long[] schematic = new long[16];
+    private int schematicSize = 0;
+
+    private int placedBlocks = 0;
+    private int pastedSchematics = 0;
+
+    /**
+     * Places a block without a course, like the block a course begins off.
+     *
+     * @param position The packed position.
+     */
+    public void set(long position) {
+        blocks.put(position, NORMAL);
+    }
+
+    /**
+     * @param position The packed position.
+     * @return The type of the block at position, {@link LongIntMap#MISSING} if there is none.
+     */
+    public int getType(long position) {
+        return blocks.get(position);
+    }
+
+    /**
+     * @return The least recently placed block that hasn't been polled yet, {@link #NONE} if there is none.
+     */
+    public long poll() {
+        if (head == tail) {
+            return NONE;
+        }
+
+        return placed[head++];
+    }
+
+    /**
+     * Discards all placed blocks that haven't been polled yet.
+     */
+    public void discard() {
+        head = 0;
+        tail = 0;
+    }
+
+    /**
+     * @return The amount of blocks currently in this world.
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * @return The amount of parkour blocks that have been placed.
+     */
+    public int getPlacedBlocks() {
+        return placedBlocks;
+    }
+
+    /**
+     * @return The amount of schematics that have been pasted.
+     */
+    public int getPastedSchematics() {
+        return pastedSchematics;
+    }
+
+    @Override
+    public void setBlock(long position, int special) {
+        blocks.put(position, special == JumpPlanner.NO_SPECIAL ? NORMAL : special + 1);
+        queue(position);
+        placedBlocks++;
+    }
+
+    @Override
+    public void setAir(long position) {
+        blocks.remove(position);
+    }
+
+    @Override
+    public void clear(long position) {
+        blocks.remove(position);
+    }
+
+    @Override
+    public boolean isAir(long position) {
+        return blocks.get(position) == LongIntMap.MISSING;
+    }
+
+    @Override
+    public long paste(long position, int headingX, int headingZ, RandomGenerator random) {
+        int x = BlockHistory.unpackX(position);
+        int y = BlockHistory.unpackY(position);
+        int z = BlockHistory.unpackZ(position);
+
+        int length = 3 + random.nextInt(6);
+        long end = NONE;
+
+        schematicSize = 0;
+        for (int i = 0; i < length; i++) {
+            end = BlockHistory.pack(x + 2 * i * headingX, y, z + 2 * i * headingZ);
+
+            blocks.put(end, SCHEMATIC);
+            queue(end);
+
+            if (schematicSize == schematic.length) {
+                schematic = Arrays.copyOf(schematic, schematicSize * 2);
+            }
+            schematic[schematicSize++] = end;
+        }
+
+        pastedSchematics++;
+
+        return end;
+    }
+
+    @Override
+    public void removeSchematic() {
+        for (int i = 0; i < schematicSize; i++) {
+            blocks.remove(schematic[i]);
+        }
+
+        schematicSize = 0;
+    }
+
+    private void queue(long position) {
+        if (tail == placed.length) {
+            if (head > 0) { // compact
+                System.arraycopy(placed, head, placed, 0, tail - head);
+                tail -= head;
+                head = 0;
+            } else {
+                placed = Arrays.copyOf(placed, placed.length * 2);
+            }
+        }
+
+        placed[tail++] = position;
+    }
+}
@@ -0,0 +1,122 @@
+package dev.efnilite.ip.benchmarks.stub;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * <p>A headless {@link Server}, so code that calls static {@link Bukkit} methods can be benchmarked without a running server.</p>
+ * <p>Only the methods used by the benchmarks are implemented. All other methods return null, 0 or false.</p>
+ */
+public final class StubServer {
+
+    private static final Logger LOGGER = Logger.getLogger("StubServer");
+    private static final Set<BlockFace> FACES = Set.of(BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST);
+
+    /**
+     * Installs the stub server, if no server has been set yet.
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+
+        Bukkit.setServer((Server) Proxy.newProxyInstance(StubServer.class.getClassLoader(), new Class<?>[]{Server.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getLogger" -> LOGGER;
+            case "getName" -> "StubServer";
+            case "getVersion", "getBukkitVersion", "getMinecraftVersion" -> "1.20.1-R0.1-SNAPSHOT";
+            case "createBlockData" -> args.length == 1 && args[0] instanceof String data ? blockData(data) : null;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "StubServer";
+            default -> defaultValue(method);
+        }));
+    }
+
+    /**
+     * @param data The block data string, like "minecraft:oak_stairs[facing=north,half=bottom]".
+     * @return A {@link BlockData} that only knows its string and, if it has one, its facing.
+     */
+    private static BlockData blockData(String data) {
+        int facing = data.indexOf("facing=");
+
+        if (facing == -1) {
+            return create(new Class<?>[]{BlockData.class}, new Data(data, null));
+        }
+
+        int end = data.indexOf(',', facing);
+        if (end == -1) {
+            end = data.indexOf(']', facing);
+        }
+
+        BlockFace face = BlockFace.valueOf(data.substring(facing + "facing=".length(), end).toUpperCase(Locale.ROOT));
+
+        return create(new Class<?>[]{BlockData.class, Directional.class}, new Data(data, face));
+    }
+
+    private static BlockData create(Class<?>[] interfaces, Data data) {
+        return (BlockData) Proxy.newProxyInstance(StubServer.class.getClassLoader(), interfaces, data);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0F;
+        } else if (type == double.class) {
+            return 0D;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    // the state of a stubbed block data instance
+    private static class Data implements InvocationHandler {
+
+        private final String string;
+        private BlockFace facing;
+
+        private Data(String string, BlockFace facing) {
+            this.string = string;
+            this.facing = facing;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "getAsString" -> string;
+                case "getFacing" -> facing;
+                case "setFacing" -> {
+                    facing = (BlockFace) args[0];
+                    yield null;
+                }
+                case "getFaces" -> FACES;
+                case "clone" -> create(proxy.getClass().getInterfaces(), new Data(string, facing));
+                case "hashCode" -> string.hashCode();
+                case "equals" -> args[0] instanceof BlockData other && string.equals(other.getAsString());
+                case "toString" -> string;
+                default -> defaultValue(method);
+            };
+        }
+    }
+}
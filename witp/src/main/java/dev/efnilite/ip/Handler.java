@@ -53,6 +53,16 @@ public class Handler implements EventWatcher {
      */
     private final HashMap<UUID, PreviousData> quitPreviousData = new HashMap<>();
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void prelogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || !Option.JOINING) {
+            return;
+        }
+
+        // read settings before the player joins, as this event is already async
+        IP.getSettingsCache().prefetch(event.getUniqueId());
+    }
+
     @EventHandler(priority = EventPriority.LOWEST)
     public void join(PlayerJoinEvent event) {
         Player player = event.getPlayer();
@@ -102,6 +112,8 @@ public class Handler implements EventWatcher {
 
     @EventHandler
     public void leave(PlayerQuitEvent event) {
+        IP.getSettingsCache().invalidate(event.getPlayer().getUniqueId());
+
         ParkourUser user = ParkourUser.getUser(event.getPlayer());
 
         if (user == null) {
@@ -10,10 +10,15 @@ import dev.efnilite.ip.mode.Modes;
 import dev.efnilite.ip.mode.SpectatorMode;
 import dev.efnilite.ip.player.ParkourUser;
 import dev.efnilite.ip.session.SessionChat;
+import dev.efnilite.ip.storage.SaveQueue;
+import dev.efnilite.ip.storage.SettingsCache;
 import dev.efnilite.ip.storage.Storage;
 import dev.efnilite.ip.storage.StorageDisk;
+import dev.efnilite.ip.storage.StorageLog;
 import dev.efnilite.ip.storage.StorageSQL;
+import dev.efnilite.ip.storage.StorageSQLite;
 import dev.efnilite.ip.util.LocaleAPI;
+import dev.efnilite.ip.world.BlockClearer;
 import dev.efnilite.ip.world.WorldManager;
 import dev.efnilite.vilib.ViPlugin;
 import dev.efnilite.vilib.util.Logging;
@@ -44,6 +49,7 @@ public final class IP extends ViPlugin {
     PluginLogger logging = new PluginLogger(this);
     private static IP instance;
     private static Storage storage;
+    private static SettingsCache settingsCache;
 
     @Nullable
     private static PAPIHook placeholderHook;
@@ -93,7 +99,16 @@ public final class IP extends ViPlugin {
 
         // ----- SQL and data -----
 
-        storage = Option.SQL ? new StorageSQL() : new StorageDisk();
+        if (Option.SQL) {
+            storage = new StorageSQL();
+        } else {
+            storage = switch (Option.STORAGE_TYPE) {
+                case "log" -> new StorageLog();
+                case "sqlite" -> new StorageSQLite();
+                default -> new StorageDisk();
+            };
+        }
+        settingsCache = new SettingsCache();
 
         // ----- Registry -----
 
@@ -145,6 +160,10 @@ public final class IP extends ViPlugin {
 
         // write all IP gamemodes
         Modes.DEFAULT.getLeaderboard().write(false);
+        Modes.DEFAULT.getPeriodLeaderboards().values().forEach(leaderboard -> leaderboard.get().write(false));
+
+        BlockClearer.drain();
+        SaveQueue.drain();
 
         storage.close();
         WorldManager.delete();
@@ -182,4 +201,8 @@ public final class IP extends ViPlugin {
     public static Storage getStorage() {
         return storage;
     }
+
+    public static SettingsCache getSettingsCache() {
+        return settingsCache;
+    }
 }
\ No newline at end of file
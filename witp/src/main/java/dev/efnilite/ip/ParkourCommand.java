@@ -84,6 +84,7 @@ public class ParkourCommand extends ViCommand {
                     completions.add("forceleave");
                     completions.add("reset");
                     completions.add("recoverinventory");
+                    completions.add("replay");
                 }
                 return completions(args[0], completions);
             }
@@ -158,6 +159,7 @@ public class ParkourCommand extends ViCommand {
             send(sender, "<gray>/ip forcejoin <everyone/nearest/player> <dark_gray>- Forces a specific player, the nearest or everyone to join");
             send(sender, "<gray>/ip forceleave <everyone/nearest/player> <dark_gray>- Forces a specific player, the nearest or everyone to leave");
             send(sender, "<gray>/ip recoverinventory <player> <dark_gray>- Recover a player's saved inventory. <red>Useful for recovering data after server crashes or errors when leaving.");
+            send(sender, "<gray>/ip replay <seed> <dark_gray>- Play the course of a previous run again. Seeds can be found in runs.log.");
         }
         send(sender, "");
     }
@@ -402,6 +404,26 @@ public class ParkourCommand extends ViCommand {
         }
 
         switch (arg1) {
+            case "replay" -> {
+                if (!sender.hasPermission(ParkourOption.ADMIN.permission) || !cooldown(sender, "replay", 2500)) {
+                    return;
+                }
+
+                long seed;
+                try {
+                    seed = Long.parseLong(arg2);
+                } catch (NumberFormatException ex) {
+                    send(sender, "%sInvalid seed! Seeds can be found in runs.log.".formatted(IP.PREFIX));
+                    return;
+                }
+
+                if (ParkourUser.getUser(player) != null) {
+                    send(sender, "%sLeave the parkour before replaying a run.".formatted(IP.PREFIX));
+                    return;
+                }
+
+                Modes.DEFAULT.replay(player, seed);
+            }
             case "join" -> {
                 if (!cooldown(sender, "join", 2500) || !ParkourOption.JOIN.mayPerform(player)) {
                     return;
@@ -2,12 +2,12 @@ package dev.efnilite.ip.config;
 
 import dev.efnilite.ip.IP;
 import dev.efnilite.ip.api.Registry;
+import dev.efnilite.ip.leaderboard.Period;
 import dev.efnilite.ip.menu.ParkourOption;
 import dev.efnilite.ip.session.Session;
 import dev.efnilite.ip.style.Style;
 import dev.efnilite.ip.util.Util;
 import dev.efnilite.vilib.particle.ParticleData;
-import dev.efnilite.vilib.util.Colls;
 import org.bukkit.*;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -34,6 +34,7 @@ public class Option {
     public static List<String> FOCUS_MODE_WHITELIST;
     public static boolean GO_BACK;
     public static boolean ON_JOIN;
+    public static boolean RUN_LOG;
 
     public static List<Integer> POSSIBLE_LEADS;
 
@@ -58,14 +59,28 @@ public class Option {
 
     public static int STORAGE_UPDATE_INTERVAL = 30;
 
+    public static String STORAGE_TYPE;
+
+    public static List<Period> LEADERBOARD_PERIODS = List.of();
+
     public static void init(boolean firstLoad) {
         initSql();
         initEnums();
         initGeneration();
         initAdvancedGeneration();
-        initStyles("styles.list", "default", Config.CONFIG.fileConfiguration, (materials, session) -> Colls.random(materials));
+        initStyles("styles.list", "default", Config.CONFIG.fileConfiguration, (materials, session) -> materials.get(session.generator.random.nextInt(materials.size())));
 
         STORAGE_UPDATE_INTERVAL = Config.CONFIG.getInt("storage-update-interval");
+        STORAGE_TYPE = Config.CONFIG.getString("storage-type").toLowerCase();
+
+        LEADERBOARD_PERIODS = new ArrayList<>();
+        for (String period : Config.CONFIG.getStringList("leaderboard-periods")) {
+            try {
+                LEADERBOARD_PERIODS.add(Period.valueOf(period.toUpperCase()));
+            } catch (IllegalArgumentException ex) {
+                IP.logging().severe("Invalid leaderboard period: %s. Should be daily, weekly or monthly.".formatted(period));
+            }
+        }
 
         GO_BACK_LOC = parseLocation(Config.CONFIG.getString("bungeecord.go-back"));
         String[] axes = Config.CONFIG.getString("bungeecord.go-back-axes").split(",");
@@ -92,6 +107,7 @@ public class Option {
         HEALTH_HANDLING = Config.CONFIG.getBoolean("options.health-handling");
         INVENTORY_SAVING = Config.CONFIG.getBoolean("options.inventory-saving");
         ALT_INVENTORY_SAVING_COMMAND = Config.CONFIG.getString("options.alt-inventory-saving-command");
+        RUN_LOG = Config.CONFIG.getBoolean("options.run-log");
 
         List<ParkourOption> options = new ArrayList<>(Arrays.asList(ParkourOption.values()));
 
@@ -222,6 +238,7 @@ public class Option {
     public static String SQL_USERNAME;
     public static String SQL_PASSWORD;
     public static String SQL_PREFIX;
+    public static int SQL_POOL_SIZE;
 
     private static void initSql() {
         SQL_PORT = Config.CONFIG.getInt("sql.port");
@@ -230,6 +247,7 @@ public class Option {
         SQL_USERNAME = Config.CONFIG.getString("sql.username");
         SQL_PASSWORD = Config.CONFIG.getString("sql.password");
         SQL_PREFIX = Config.CONFIG.getString("sql.prefix");
+        SQL_POOL_SIZE = Config.CONFIG.getInt("sql.pool-size");
     }
 
     // --------------------------------------------------------------
@@ -294,10 +312,18 @@ public class Option {
     public static double BORDER_SIZE;
     public static int GENERATOR_CHECK;
     public static int SCHEMATIC_COOLDOWN;
+    public static long SCHEDULER_TICK_BUDGET;
+    public static long SCHEDULER_SESSION_BUDGET;
+    public static long CLEAR_BUDGET;
 
     private static void initAdvancedGeneration() {
         GENERATOR_CHECK = Config.GENERATION.getInt("advanced.generator-check");
 
+        // budgets are stored in nanoseconds
+        SCHEDULER_TICK_BUDGET = (long) (Config.GENERATION.getDouble("advanced.scheduler.tick-budget") * 1_000_000);
+        SCHEDULER_SESSION_BUDGET = (long) (Config.GENERATION.getDouble("advanced.scheduler.session-budget") * 1_000_000);
+        CLEAR_BUDGET = (long) (Config.GENERATION.getDouble("advanced.scheduler.clear-budget") * 1_000_000);
+
         SCHEMATIC_COOLDOWN = Config.GENERATION.getInt("advanced.schematic-cooldown");
     }
 
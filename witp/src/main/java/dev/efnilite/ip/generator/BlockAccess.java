@@ -0,0 +1,62 @@
+package dev.efnilite.ip.generator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>The world a {@link Course} is generated in.</p>
+ * <p>All positions are packed with {@link BlockHistory#pack(int, int, int)}.
+ * Implementations don't have to be backed by a server, which allows generating courses in a simulated world.</p>
+ *
+ * @since 5.1.0
+ */
+public interface BlockAccess {
+
+    /**
+     * Returned by {@link #paste(long, int, int, RandomGenerator)} when no schematic could be pasted.
+     */
+    long NONE = Long.MIN_VALUE;
+
+    /**
+     * Places a parkour block.
+     *
+     * @param position The packed position.
+     * @param special  The index of the special block, or {@link JumpPlanner#NO_SPECIAL} for a normal block.
+     */
+    void setBlock(long position, int special);
+
+    /**
+     * Removes a block right away.
+     *
+     * @param position The packed position.
+     */
+    void setAir(long position);
+
+    /**
+     * Removes a block. The removal may be spread over the next ticks.
+     *
+     * @param position The packed position.
+     */
+    void clear(long position);
+
+    /**
+     * @param position The packed position.
+     * @return True when there is no block at position, false if there is.
+     */
+    boolean isAir(long position);
+
+    /**
+     * Pastes a schematic.
+     *
+     * @param position The packed position of the start of the schematic.
+     * @param headingX The x component of the current heading.
+     * @param headingZ The z component of the current heading.
+     * @param random   The random generator to use when selecting a schematic.
+     * @return The packed position of the end of the schematic, or {@link #NONE} if nothing was pasted.
+     */
+    long paste(long position, int headingX, int headingZ, RandomGenerator random);
+
+    /**
+     * Removes the most recently pasted schematic. The removal may be spread over the next ticks.
+     */
+    void removeSchematic();
+}
@@ -0,0 +1,182 @@
+package dev.efnilite.ip.generator;
+
+import dev.efnilite.ip.util.LongIntMap;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>The history of generated blocks of a {@link Course}.</p>
+ * <p>Positions are stored as packed coordinates in a ring buffer, with a primitive index from position to history index.
+ * Indices are absolute: they keep increasing during a run, but only the last {@link #capacity()} positions are retained.</p>
+ *
+ * @since 5.1.0
+ */
+public class BlockHistory {
+
+    /**
+     * The default amount of retained positions. Has to fit the largest block lead and the trail behind the player.
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final long[] ring;
+    private final int mask;
+    private final LongIntMap index;
+
+    private int size = 0;
+
+    public BlockHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The amount of retained positions. Rounded up to a power of two.
+     */
+    public BlockHistory(int capacity) {
+        int rounded = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+
+        this.ring = new long[rounded];
+        this.mask = rounded - 1;
+        this.index = new LongIntMap(rounded);
+    }
+
+    /**
+     * Packs block coordinates into a single long.
+     * Uses 26 bits for x and z and 12 bits for y.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param z The z coordinate.
+     * @return The packed position.
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * @param block The block.
+     * @return The packed position of block.
+     */
+    public static long pack(@NotNull Block block) {
+        return pack(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * @param key The packed position.
+     * @return The x coordinate.
+     */
+    public static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    /**
+     * @param key The packed position.
+     * @return The y coordinate.
+     */
+    public static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    /**
+     * @param key The packed position.
+     * @return The z coordinate.
+     */
+    public static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /**
+     * Adds a position. If the history is full, the oldest position is dropped.
+     *
+     * @param key The packed position.
+     */
+    public void add(long key) {
+        int slot = size & mask;
+
+        if (size > mask) {
+            long evicted = ring[slot];
+
+            // only drop the index entry if it points to the evicted position
+            if (index.get(evicted) == size - ring.length) {
+                index.remove(evicted);
+            }
+        }
+
+        ring[slot] = key;
+        index.put(key, size);
+        size++;
+    }
+
+    /**
+     * @param i The absolute index.
+     * @return The packed position at index i.
+     * @throws IndexOutOfBoundsException If i has not been added yet or has already been dropped.
+     */
+    public long get(int i) {
+        if (i < first() || i >= size) {
+            throw new IndexOutOfBoundsException("Index %d out of bounds for retained range %d to %d".formatted(i, first(), size));
+        }
+
+        return ring[i & mask];
+    }
+
+    /**
+     * @param key The packed position.
+     * @return The absolute index of the most recent occurrence of key, -1 if key isn't retained.
+     */
+    public int indexOf(long key) {
+        return index.get(key);
+    }
+
+    /**
+     * @param key The packed position.
+     * @return True when key is retained, false if not.
+     */
+    public boolean contains(long key) {
+        return index.get(key) != LongIntMap.MISSING;
+    }
+
+    /**
+     * @return The most recently added position.
+     */
+    public long latest() {
+        return get(size - 1);
+    }
+
+    /**
+     * @return The total amount of added positions, which is also the next absolute index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The absolute index of the oldest retained position.
+     */
+    public int first() {
+        return Math.max(0, size - ring.length);
+    }
+
+    /**
+     * @return The maximum amount of retained positions.
+     */
+    public int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * @return True when no positions have been added, false if not.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all positions and resets the absolute index.
+     */
+    public void clear() {
+        index.clear();
+        size = 0;
+    }
+}
@@ -0,0 +1,493 @@
+package dev.efnilite.ip.generator;
+
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.Profile.Setting;
+import dev.efnilite.ip.util.Distribution;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>The part of a generator that doesn't depend on a server: jump selection, schematic placement decisions, progress tracking and scoring.</p>
+ * <p>All changes to the world go through {@link BlockAccess}, so a course can be generated and run in a simulated world.</p>
+ *
+ * @since 5.1.0
+ */
+public class Course {
+
+    /**
+     * The amount of blocks that trail behind the player.
+     */
+    public static final int BLOCK_TRAIL = 2;
+
+    /**
+     * This course's score
+     */
+    public int score = 0;
+
+    /**
+     * The total score achieved in this course
+     */
+    public int totalScore = 0;
+
+    /**
+     * The schematic cooldown
+     */
+    public int schematicCooldown = Option.SCHEMATIC_COOLDOWN;
+
+    /**
+     * Whether this course has been stopped
+     */
+    public boolean stopped = false;
+
+    /**
+     * The x component of the direction of the parkour
+     */
+    public int headingX;
+
+    /**
+     * The z component of the direction of the parkour
+     */
+    public int headingZ;
+
+    /**
+     * Generator options
+     */
+    public final List<GeneratorOption> generatorOptions;
+
+    /**
+     * This course's {@link Profile}.
+     */
+    public final Profile profile = new Profile();
+
+    /**
+     * The seed of the current run. Every run starts with a random generator seeded with this value.
+     */
+    public long seed;
+
+    /**
+     * The random generator of the current run. Only used on the main thread, see {@link JumpPlanner} for planning.
+     */
+    public SplittableRandom random;
+
+    /**
+     * The chances of which distance the jump should have
+     */
+    public final Map<Integer, Double> distanceChances = new HashMap<>();
+
+    /**
+     * The chances of which height the jump should have
+     */
+    public final Map<Integer, Double> heightChances = new HashMap<>();
+
+    /**
+     * The chances of which special block should be used, in the order of their indices
+     */
+    public final Map<Special, Double> specials = new LinkedHashMap<>();
+
+    /**
+     * The chances of default jump types: schematic, 'special' (ice, etc.) or normal.
+     * Kept in enum order, so the same seed always samples the same jump types.
+     */
+    public final Map<JumpType, Double> defaultChances = new EnumMap<>(JumpType.class);
+
+    /**
+     * The compiled distribution of {@link #distanceChances}.
+     */
+    protected Distribution<Integer> distanceDistribution;
+
+    /**
+     * The compiled distribution of {@link #heightChances}.
+     */
+    protected Distribution<Integer> heightDistribution;
+
+    /**
+     * The compiled distribution of {@link #specials}.
+     */
+    protected Distribution<Special> specialDistribution;
+
+    /**
+     * The compiled distributions of {@link #defaultChances}, indexed by whether schematics (1) and special blocks (2) are allowed.
+     */
+    @SuppressWarnings("unchecked")
+    protected final Distribution<JumpType>[] jumpTypeDistributions = new Distribution[4];
+
+    /**
+     * Whether the schematic should be deleted on the next jump.
+     */
+    protected boolean deleteSchematic = false;
+    protected boolean waitForSchematicCompletion = false;
+
+    /**
+     * The packed position of the end of the pasted schematic, {@link BlockAccess#NONE} if there is none.
+     */
+    protected long schematicEnd = BlockAccess.NONE;
+
+    /**
+     * The player's current position index.
+     */
+    protected int lastPositionIndexPlayer = -1;
+
+    /**
+     * The index of the first block in history that hasn't been removed by the trail yet.
+     */
+    protected int trailIndex = 1;
+
+    /**
+     * The history of generated blocks. The most recently generated block has the highest index.
+     */
+    protected final BlockHistory history = new BlockHistory();
+
+    /**
+     * The world this course is generated in.
+     */
+    protected final BlockAccess access;
+
+    /**
+     * Keeps jumps within the playable area. Precomputed, since the zone never changes.
+     */
+    protected final JumpDirector director;
+
+    /**
+     * Plans the next jumps off the main thread.
+     */
+    protected final JumpPlanner planner;
+
+    /**
+     * The amount of jumps that have been requested but haven't been placed yet, because they weren't planned yet.
+     */
+    protected int pendingJumps = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param access           The world.
+     * @param director         The director of the playable area.
+     * @param seed             The seed of the first run.
+     * @param generatorOptions The options.
+     * @param planning         The executor jumps are planned on.
+     * @param capacity         The maximum amount of jumps planned ahead.
+     */
+    public Course(@NotNull BlockAccess access, @NotNull JumpDirector director, long seed,
+                  @NotNull List<GeneratorOption> generatorOptions, @NotNull Executor planning, int capacity) {
+        this.access = access;
+        this.director = director;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.generatorOptions = generatorOptions;
+        this.headingX = director.getHeadingX();
+        this.headingZ = director.getHeadingZ();
+        this.planner = new JumpPlanner(this, capacity, planning);
+    }
+
+    /**
+     * Constructor for subclasses which implement {@link BlockAccess} themselves.
+     *
+     * @see #Course(BlockAccess, JumpDirector, long, List, Executor, int)
+     */
+    protected Course(@NotNull JumpDirector director, long seed,
+                     @NotNull List<GeneratorOption> generatorOptions, @NotNull Executor planning, int capacity) {
+        this.access = (BlockAccess) this;
+        this.director = director;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.generatorOptions = generatorOptions;
+        this.headingX = director.getHeadingX();
+        this.headingZ = director.getHeadingZ();
+        this.planner = new JumpPlanner(this, capacity, planning);
+    }
+
+    /**
+     * Compiles the chance maps into distributions, so they don't have to be rebuilt on every jump.
+     */
+    public void compileChances() {
+        heightDistribution = Distribution.of(heightChances);
+        distanceDistribution = Distribution.of(distanceChances);
+        specialDistribution = specials.isEmpty() ? null : Distribution.of(specials);
+
+        for (int allowed = 0; allowed < jumpTypeDistributions.length; allowed++) {
+            Map<JumpType, Double> chances = new EnumMap<>(defaultChances);
+
+            if ((allowed & 1) == 0) {
+                chances.remove(JumpType.SCHEMATIC);
+            }
+            if ((allowed & 2) == 0 || specialDistribution == null) {
+                chances.remove(JumpType.SPECIAL);
+            }
+            if (chances.isEmpty()) {
+                chances.put(JumpType.DEFAULT, 1.0);
+            }
+
+            jumpTypeDistributions[allowed] = Distribution.of(chances);
+        }
+    }
+
+    /**
+     * Adds a point to the score.
+     */
+    protected void score() {
+        score++;
+        totalScore++;
+    }
+
+    /**
+     * @return True when the seed should be kept for the next run, false if not.
+     */
+    protected boolean isReplay() {
+        return false;
+    }
+
+    /**
+     * Starts a run from the provided position.
+     * The first jumps are planned off the main thread and placed as soon as they are available.
+     *
+     * @param from The packed position of the block the parkour begins off.
+     */
+    public void start(long from) {
+        random = new SplittableRandom(seed);
+        history.add(from);
+        planner.reset(history.latest(), headingX, headingZ);
+
+        pendingJumps += profile.getInt(Setting.BLOCK_LEAD) + 1;
+        drain(false);
+    }
+
+    /**
+     * Updates the progress of the player.
+     *
+     * @param position The packed position of the block the player is standing on.
+     * @return True when the player moved forward on the parkour, false if not.
+     */
+    public boolean progress(long position) {
+        if (schematicEnd != BlockAccess.NONE && position == schematicEnd && !deleteSchematic) { // Structure deletion check
+            for (int i = 0; i < getDifficultyScore() * 15; i++) {
+                score();
+            }
+            waitForSchematicCompletion = false;
+            schematicCooldown = Option.SCHEMATIC_COOLDOWN;
+            generate(profile.getInt(Setting.BLOCK_LEAD));
+            deleteSchematic = true;
+            return false;
+        }
+
+        int currentIndex = history.indexOf(position); // current index of the player
+
+        if (currentIndex == -1) {
+            return false; // player is on an unknown block
+        }
+
+        int deltaFromLast = currentIndex - lastPositionIndexPlayer;
+
+        if (deltaFromLast <= 0) { // the player is actually making progress and not going backwards (current index is higher than the previous)
+            return false;
+        }
+
+        int blockLead = profile.getInt(Setting.BLOCK_LEAD);
+
+        int deltaCurrentTotal = history.size() + pendingJumps - currentIndex; // delta between current index and total
+        if (deltaCurrentTotal <= blockLead) {
+            generate(blockLead - deltaCurrentTotal); // generate the remaining amount so it will match
+        }
+        if (currentIndex == history.size() - 1) { // player is on the latest block, so don't wait for planning
+            drain(true);
+        }
+        lastPositionIndexPlayer = currentIndex;
+
+        // avoid setting beginning block to air
+        for (int i = Math.max(trailIndex, history.first()); i <= currentIndex - BLOCK_TRAIL - 1; i++) {
+            access.setAir(history.get(i));
+        }
+        trailIndex = Math.max(trailIndex, currentIndex - BLOCK_TRAIL);
+
+        deleteSchematic();
+
+        for (int i = 0; i < (Option.ALL_POINTS ? deltaFromLast : 1); i++) { // score the difference
+            score();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes all blocks of this course and resets the progress.
+     */
+    public void clearCourse() {
+        lastPositionIndexPlayer = 0;
+        // blocks before trailIndex have already been removed, and the beginning block is kept
+        for (int i = Math.max(trailIndex, history.first()); i < history.size(); i++) {
+            access.clear(history.get(i));
+        }
+        history.clear();
+        trailIndex = 1;
+        pendingJumps = 0;
+
+        waitForSchematicCompletion = false;
+        deleteSchematic = true;
+        deleteSchematic();
+    }
+
+    /**
+     * Prepares the next run. Selects a new seed, unless {@link #isReplay()} is true.
+     */
+    public void nextRun() {
+        if (!isReplay()) {
+            seed = random.nextLong();
+        }
+
+        score = 0;
+        headingX = director.getHeadingX();
+        headingZ = director.getHeadingZ();
+    }
+
+    private void deleteSchematic() {
+        if (!deleteSchematic) {
+            return;
+        }
+
+        access.removeSchematic();
+        schematicEnd = BlockAccess.NONE;
+
+        deleteSchematic = false;
+        schematicCooldown = Option.SCHEMATIC_COOLDOWN;
+    }
+
+    /**
+     * Generates the next parkour block or schematic.
+     * Blocks are placed as soon as their jump has been planned, see {@link #drain(boolean)}.
+     */
+    public void generate() {
+        pendingJumps++;
+
+        drain(false);
+    }
+
+    /**
+     * Generates a specific amount of blocks ahead of the player
+     *
+     * @param amount The amount
+     */
+    public void generate(int amount) {
+        pendingJumps += amount + 1;
+
+        drain(false);
+    }
+
+    /**
+     * Places pending jumps while planned jumps are available.
+     *
+     * @param urgent True if jumps that haven't been planned yet should be planned on the calling thread, false if not.
+     */
+    protected void drain(boolean urgent) {
+        planner.configure(profile.getBoolean(Setting.USE_SPECIAL_BLOCKS));
+
+        while (pendingJumps > 0 && !waitForSchematicCompletion) {
+            if (urgent) {
+                planner.nextNow();
+            } else if (!planner.next()) {
+                return;
+            }
+
+            pendingJumps--;
+            place();
+        }
+
+        if (waitForSchematicCompletion) {
+            pendingJumps = 0;
+        }
+    }
+
+    // places the current planned jump, or a schematic at its position
+    private void place() {
+        int allowed = 0;
+        if (schematicCooldown <= 0 && !generatorOptions.contains(GeneratorOption.DISABLE_SCHEMATICS) && profile.getDouble(Setting.SCHEMATIC_DIFFICULTY) != 0.0 && schematicEnd == BlockAccess.NONE) {
+            allowed |= 1;
+        }
+        if (profile.getBoolean(Setting.USE_SPECIAL_BLOCKS)) {
+            allowed |= 2;
+        }
+
+        long position = planner.getPosition();
+
+        if (jumpTypeDistributions[allowed].sample(random) == JumpType.SCHEMATIC) {
+            long end = access.paste(position, headingX, headingZ, random);
+
+            if (end != BlockAccess.NONE) {
+                placeSchematic(end);
+                return;
+            }
+
+            // the planned jump is still reachable, so place it as a normal jump instead
+        }
+
+        access.setBlock(position, planner.getSpecial());
+
+        history.add(position);
+        schematicCooldown--;
+
+        headingX = planner.getHeadingX();
+        headingZ = planner.getHeadingZ();
+    }
+
+    // continues the course after a pasted schematic ending at end
+    private void placeSchematic(long end) {
+        // continue from below the end of the schematic
+        schematicEnd = end;
+        history.add(BlockHistory.pack(BlockHistory.unpackX(end), BlockHistory.unpackY(end) - 1, BlockHistory.unpackZ(end)));
+        planner.reset(history.latest(), headingX, headingZ);
+
+        schematicCooldown = Option.SCHEMATIC_COOLDOWN;
+        waitForSchematicCompletion = true;
+    }
+
+    /**
+     * Calculates a score between 0 (inclusive) and 1 (inclusive) to determine how difficult it was for
+     * the player to achieve this score using their settings.
+     */
+    public double getDifficultyScore() {
+        double score = 0;
+
+        if (profile.getBoolean(Setting.USE_SPECIAL_BLOCKS)) score += 0.5;
+        if (profile.getBoolean(Setting.USE_STRUCTURE)) {
+            if (profile.getDouble(Setting.SCHEMATIC_DIFFICULTY) <= 0.25) score += 0.2;
+            if (profile.getDouble(Setting.SCHEMATIC_DIFFICULTY) <= 0.5) score += 0.3;
+            if (profile.getDouble(Setting.SCHEMATIC_DIFFICULTY) <= 0.75) score += 0.4;
+            if (profile.getDouble(Setting.SCHEMATIC_DIFFICULTY) <= 1.0) score += 0.5;
+        }
+
+        return score;
+    }
+
+    /**
+     * @return The packed position of the most recently generated block.
+     */
+    public long getLatestPosition() {
+        return history.latest();
+    }
+
+    /**
+     * @return The amount of blocks generated in this run.
+     */
+    public int getGenerated() {
+        return history.size();
+    }
+
+    /**
+     * The type of jump.
+     */
+    public enum JumpType {
+        DEFAULT, SCHEMATIC, SPECIAL
+    }
+
+    /**
+     * A special block and the limits it puts on the jump after it.
+     *
+     * @param index       The index of the special block, passed to {@link BlockAccess#setBlock(long, int)}.
+     * @param maxHeight   The maximum height of the next jump.
+     * @param maxDistance The maximum distance of the next jump.
+     * @param offsetY     The offset in y of this block.
+     */
+    public record Special(int index, int maxHeight, int maxDistance, int offsetY) {
+
+    }
+}
@@ -4,6 +4,7 @@ import dev.efnilite.ip.IP;
 import dev.efnilite.ip.config.Config;
 import dev.efnilite.ip.schematic.Schematic;
 import dev.efnilite.ip.session.Session;
+import dev.efnilite.ip.world.BlockClearer;
 import dev.efnilite.ip.world.WorldDivider;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -66,7 +67,7 @@ public final class Island {
             ps.setYaw(Config.GENERATION.getInt("advanced.island.spawn.yaw"));
             ps.setPitch(Config.GENERATION.getInt("advanced.island.spawn.pitch"));
 
-            session.generator.generateFirst(ps, parkour.getLocation().subtract(session.generator.heading).subtract(0, 1, 0));
+            session.generator.generateFirst(ps, parkour.getLocation().subtract(session.generator.getHeading()).subtract(0, 1, 0));
             session.generator.startTick();
             session.getPlayers().forEach(pp -> pp.setup(ps));
         } catch (NoSuchElementException ex) {
@@ -85,6 +86,6 @@ public final class Island {
             return;
         }
 
-        blocks.forEach(block -> block.setType(Material.AIR, false));
+        BlockClearer.clear(session, blocks);
     }
 }
\ No newline at end of file
@@ -5,103 +5,92 @@ import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * The JumpDirector provides calculations to ensure parkour blocks stay within the allowed playable area.
+ * <p>The JumpDirector provides calculations to ensure parkour blocks stay within the allowed playable area.</p>
+ * <p>The playable area never changes during a session, so the border margins and the rotations for every heading are precomputed.
+ * All methods use primitive block coordinates and don't allocate.</p>
  */
 public class JumpDirector {
 
-    private final BoundingBox bb;
-    private final double[][] progress;
-
     /**
-     * Constructor.
-     *
-     * @param bb    The bounding box of the allowed parkour area.
-     * @param point The point to base the direction on.
+     * The minimum distance allowed to the border.
+     * Max block jump distance is 4, so 5 is the max safe distance.
      */
-    public JumpDirector(@NotNull BoundingBox bb, @NotNull Vector point) {
-        this.bb = bb;
-        this.progress = calculateParameterization(point);
-    }
+    public static final int SAFE_DISTANCE = 5;
+
+    // if a coordinate is below low or above high, it is within SAFE_DISTANCE blocks of the border
+    private final double lowX;
+    private final double highX;
+    private final double lowY;
+    private final double highY;
+    private final double lowZ;
+    private final double highZ;
+
+    // the default heading
+    private final int headingX;
+    private final int headingZ;
+
+    // cos and sin of the angle between each heading and the default heading, indexed by heading
+    private final double[] cos = new double[9];
+    private final double[] sin = new double[9];
 
     /**
-     * Calculates the player's position in a parameter form, to make it easier to detect when the player is near the edge of the border.
-     * Returns a 2-dimensional array where the first array index is used to select the x, y and z (0, 1 and 2 respectively).
+     * Constructor.
      *
-     * @return Array where the first index is tx and second index is borderMarginX (see comments in code for explanation).
+     * @param bb      The bounding box of the allowed parkour area.
+     * @param heading The default heading, in which jump offsets are defined.
      */
-    private double[][] calculateParameterization(@NotNull Vector point) {
-        Vector min = bb.getMin();
-        Vector max = bb.getMax();
-
-        // the total dimensions
-        double dx = max.getX() - min.getX();
-        double dy = max.getY() - min.getY();
-        double dz = max.getZ() - min.getZ();
-
-        // the relative x, y and z coordinates
-        // relative being from the min point of the selection zone
-        double relativeX = point.getX() - min.getX();
-        double relativeY = point.getY() - min.getY();
-        double relativeZ = point.getZ() - min.getZ();
-
-        // get progress along axes
-        // tx = 0 means that the player is at the same x coordinate as the min point (origin)
-        // tx = 1 means that the player is at the same x coordinate as the max point
-        // everything between is the progress between these two points, relatively speaking
-        double tx = relativeX / dx;
-        double ty = relativeY / dy;
-        double tz = relativeZ / dz;
-
-        // the minimum distance allowed to the border
-        // max block jump distance is 4, so 5 is the max safe distance
-        double safeDistance = 5;
-
-        // the margin until the border
-        // if tx < borderMarginX, it means the x coordinate is within 'safeDistance' blocks of the border
-        double borderMarginX = safeDistance / dx;
-        double borderMarginY = safeDistance / dy;
-        double borderMarginZ = safeDistance / dz;
-
-        return new double[][]{{tx, borderMarginX}, {ty, borderMarginY}, {tz, borderMarginZ}};
+    public JumpDirector(@NotNull BoundingBox bb, @NotNull Vector heading) {
+        lowX = bb.getMinX() + SAFE_DISTANCE;
+        highX = bb.getMaxX() - SAFE_DISTANCE;
+        lowY = bb.getMinY() + SAFE_DISTANCE;
+        highY = bb.getMaxY() - SAFE_DISTANCE;
+        lowZ = bb.getMinZ() + SAFE_DISTANCE;
+        highZ = bb.getMaxZ() - SAFE_DISTANCE;
+        headingX = heading.getBlockX();
+        headingZ = heading.getBlockZ();
+
+        for (int x = -1; x <= 1; x++) {
+            for (int z = -1; z <= 1; z++) {
+                // angle in y between this heading and the default heading
+                double det = x * heading.getZ() - z * heading.getX();
+                double angle = Math.atan2(det, x * heading.getX() + z * heading.getZ());
+
+                cos[index(x, z)] = Math.cos(angle);
+                sin[index(x, z)] = Math.sin(angle);
+            }
+        }
     }
 
     /**
-     * Updates the heading to make sure it avoids the border of the selected zone.
+     * Returns the x component of the heading that avoids the border of the selected zone.
      * When the most recent block is detected to be within a 5-block radius of the border,
      * the heading will automatically be turned around to ensure that the edge does not get
      * destroyed.
      *
-     * @return The recommended new heading. (0,0,0) if no modification is needed.
+     * @param x The x coordinate of the most recent block.
+     * @return The recommended x component of the heading. 0 if no modification is needed.
      */
-    @NotNull
-    public Vector getRecommendedHeading() {
-        // get x values from progress array
-        double tx = progress[0][0];
-        double borderMarginX = progress[0][1];
-
-        // get z values from progress array
-        double tz = progress[2][0];
-        double borderMarginZ = progress[2][1];
-
-        Vector recommendedHeading = new Vector(0, 0, 0);
-        // check border
-        if (tx < borderMarginX) {
-            // x should increase
-            recommendedHeading.add(new Vector(1, 0, 0));
-        } else if (tx > 1 - borderMarginX) {
-            // x should decrease
-            recommendedHeading.add(new Vector(-1, 0, 0));
+    public int getRecommendedHeadingX(int x) {
+        if (x < lowX) {
+            return 1; // x should increase
+        } else if (x > highX) {
+            return -1; // x should decrease
         }
+        return 0;
+    }
 
-        if (tz < borderMarginZ) {
-            // z should increase
-            recommendedHeading.add(new Vector(0, 0, 1));
-        } else if (tz > 1 - borderMarginZ) {
-            // z should decrease
-            recommendedHeading.add(new Vector(0, 0, -1));
+    /**
+     * @param z The z coordinate of the most recent block.
+     * @return The recommended z component of the heading. 0 if no modification is needed.
+     * @see #getRecommendedHeadingX(int)
+     */
+    public int getRecommendedHeadingZ(int z) {
+        if (z < lowZ) {
+            return 1; // z should increase
+        } else if (z > highZ) {
+            return -1; // z should decrease
         }
-
-        return recommendedHeading;
+        return 0;
     }
 
     /**
@@ -110,27 +99,51 @@ public class JumpDirector {
      * If the current height is within the border margin, it will return a value (1 or -1)
      * to make sure the player doesn't go below this value
      *
+     * @param y The y coordinate of the most recent block.
      * @return The recommended new height. 0 if no modification is needed.
      */
-    public int getRecommendedHeight() {
-        double ty = progress[1][0];
-        double borderMarginY = progress[1][1];
-
-        if (ty < borderMarginY) {
-            // y should increase
-            return 1;
-        } else if (ty > 1 - borderMarginY) {
-            // y should decrease
-            return -1;
+    public int getRecommendedHeight(int y) {
+        if (y < lowY) {
+            return 1; // y should increase
+        } else if (y > highY) {
+            return -1; // y should decrease
         }
         return 0;
     }
 
     /**
-     * @return The progress array.
-     * @see #calculateParameterization(Vector)
+     * @param headingX The x component of the heading, between -1 and 1.
+     * @param headingZ The z component of the heading, between -1 and 1.
+     * @return The cosine of the angle between the heading and the default heading.
      */
-    public double[][] getProgress() {
-        return progress;
+    public double getCos(int headingX, int headingZ) {
+        return cos[index(headingX, headingZ)];
+    }
+
+    /**
+     * @param headingX The x component of the heading, between -1 and 1.
+     * @param headingZ The z component of the heading, between -1 and 1.
+     * @return The sine of the angle between the heading and the default heading.
+     */
+    public double getSin(int headingX, int headingZ) {
+        return sin[index(headingX, headingZ)];
+    }
+
+    /**
+     * @return The x component of the default heading.
+     */
+    public int getHeadingX() {
+        return headingX;
+    }
+
+    /**
+     * @return The z component of the default heading.
+     */
+    public int getHeadingZ() {
+        return headingZ;
+    }
+
+    private static int index(int x, int z) {
+        return (x + 1) * 3 + (z + 1);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package dev.efnilite.ip.generator;
 
+import dev.efnilite.ip.util.Distribution;
 import dev.efnilite.ip.util.Probs;
-import dev.efnilite.vilib.util.Colls;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Generates a random offset (the sidestep) for a parkour block.
@@ -12,6 +14,28 @@ import java.util.stream.Collectors;
  */
 public class JumpOffsetGenerator {
 
+    /**
+     * The standard deviations used by {@link ParkourGenerator}, for which the distributions are precomputed.
+     */
+    private static final double[] STANDARD_DEVIATIONS = new double[]{1, 0.6};
+
+    /**
+     * Precomputed distributions with mean 0. Indices are standard deviation, height + 2 and distance - 1.
+     */
+    private static final Distribution<?>[][][] DISTRIBUTIONS = new Distribution<?>[STANDARD_DEVIATIONS.length][4][4];
+
+    static {
+        for (int sd = 0; sd < STANDARD_DEVIATIONS.length; sd++) {
+            for (int height = -2; height <= 1; height++) {
+                for (int distance = 1; distance <= 4; distance++) {
+                    DISTRIBUTIONS[sd][height + 2][distance - 1] = compile(getMaxOffset(height, distance), 0, STANDARD_DEVIATIONS[sd]);
+                }
+            }
+        }
+    }
+
+    private final int height;
+    private final int distance;
     private final int maxOffset;
 
     /**
@@ -20,7 +44,57 @@ public class JumpOffsetGenerator {
      * @param y The height difference.
      */
     public JumpOffsetGenerator(int y, int distance) {
-        this.maxOffset = switch (y) {
+        this.height = y;
+        this.distance = distance;
+        this.maxOffset = getMaxOffset(y, distance);
+    }
+
+    /**
+     * Samples a random offset from the precomputed distributions, if available.
+     *
+     * @param y                 The height difference.
+     * @param distance          The distance.
+     * @param standardDeviation The standard deviation.
+     * @param random            The random generator to use.
+     * @return A random jump-able offset.
+     */
+    public static int sample(int y, int distance, double standardDeviation, RandomGenerator random) {
+        Distribution<?> distribution = getDistribution(y, distance, standardDeviation);
+
+        if (distribution == null) {
+            return new JumpOffsetGenerator(y, distance).getRandomOffset(0, standardDeviation, random);
+        }
+
+        return (Integer) distribution.sample(random);
+    }
+
+    // returns the precomputed distribution, or null if there is none
+    private static Distribution<?> getDistribution(int y, int distance, double standardDeviation) {
+        if (y < -2 || y > 1 || distance < 1 || distance > 4) {
+            return null;
+        }
+
+        for (int sd = 0; sd < STANDARD_DEVIATIONS.length; sd++) {
+            if (STANDARD_DEVIATIONS[sd] == standardDeviation) {
+                return DISTRIBUTIONS[sd][y + 2][distance - 1];
+            }
+        }
+
+        return null;
+    }
+
+    private static Distribution<Integer> compile(int maxOffset, double mean, double standardDeviation) {
+        Map<Integer, Double> distribution = new LinkedHashMap<>();
+
+        for (int offset = -maxOffset; offset <= maxOffset; offset++) {
+            distribution.put(offset, Probs.normalpdf(mean, standardDeviation, offset));
+        }
+
+        return Distribution.of(distribution);
+    }
+
+    private static int getMaxOffset(int y, int distance) {
+        return switch (y) {
             case 1 -> switch (distance) {
                 case 1 -> 4;
                 case 2 -> 3;
@@ -50,10 +124,22 @@ public class JumpOffsetGenerator {
      * @return A random jump-able offset.
      */
     public int getRandomOffset(double mean, double standardDeviation) {
-        Map<Integer, Double> distribution = Colls.range(-maxOffset, maxOffset + 1)
-                .stream()
-                .collect(Collectors.toMap(offset -> offset, offset -> Probs.normalpdf(mean, standardDeviation, offset)));
+        return getRandomOffset(mean, standardDeviation, ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param mean              The mean (average) value for the offset. Usually 0 to avoid parkour going only left or right.
+     * @param standardDeviation The standard deviation.
+     * @param random            The random generator to use.
+     * @return A random jump-able offset.
+     */
+    public int getRandomOffset(double mean, double standardDeviation, RandomGenerator random) {
+        Distribution<?> distribution = mean == 0 ? getDistribution(height, distance, standardDeviation) : null;
+
+        if (distribution == null) {
+            distribution = compile(maxOffset, mean, standardDeviation);
+        }
 
-        return Probs.random(distribution);
+        return (Integer) distribution.sample(random);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,274 @@
+package dev.efnilite.ip.generator;
+
+import dev.efnilite.ip.generator.Course.Special;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Plans the jumps of a {@link Course} off the main thread.</p>
+ * <p>Jumps are planned as pure data (packed position, heading and special block) into a single-producer single-consumer queue.
+ * The main thread only drains this queue and places the blocks.
+ * Planning and pushing happen while holding a lock, so the main thread can restart planning from a new position at any time.</p>
+ * <p>Every restart splits a new random generator off {@link Course#random} on the main thread,
+ * so the planned jumps only depend on the seed and not on when planning happens.</p>
+ *
+ * @since 5.1.0
+ */
+public class JumpPlanner {
+
+    /**
+     * The special block index used when the style of the player should be used.
+     */
+    public static final int NO_SPECIAL = -1;
+
+    private final Course course;
+    private final JumpDirector director;
+    private final Executor executor;
+    private final double standardDeviation;
+    private final boolean specials;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Object lock = new Object();
+
+    // queue
+    private final long[] positions;
+    private final int[] jumps;
+    private final int mask;
+    private volatile long head = 0;
+    private volatile long tail = 0;
+
+    // planning state, guarded by lock
+    private boolean planning = false;
+    private long cursor;
+    private int cursorHeadingX;
+    private int cursorHeadingZ;
+    private SplittableRandom random;
+    private Special cursorSpecial;
+
+    // settings, written by the main thread
+    private volatile boolean useSpecialBlocks;
+
+    // last polled jump, main thread only
+    private long position;
+    private int special;
+    private int headingX;
+    private int headingZ;
+
+    /**
+     * Constructor.
+     *
+     * @param course   The course.
+     * @param capacity The maximum amount of jumps planned ahead. Rounded up to a power of two.
+     * @param executor The executor planning runs on.
+     */
+    public JumpPlanner(@NotNull Course course, int capacity, @NotNull Executor executor) {
+        int rounded = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+
+        this.course = course;
+        this.director = course.director;
+        this.executor = executor;
+        this.standardDeviation = course.generatorOptions.contains(GeneratorOption.REDUCE_RANDOM_BLOCK_SELECTION_ANGLE) ? 0.6 : 1;
+        this.specials = !course.generatorOptions.contains(GeneratorOption.DISABLE_SPECIAL);
+        this.positions = new long[rounded];
+        this.jumps = new int[rounded];
+        this.mask = rounded - 1;
+        this.random = course.random.split();
+    }
+
+    /**
+     * Discards all planned jumps and restarts planning from the provided position.
+     * Main thread only.
+     *
+     * @param from     The packed position of the latest block.
+     * @param headingX The x component of the heading at the latest block.
+     * @param headingZ The z component of the heading at the latest block.
+     */
+    public void reset(long from, int headingX, int headingZ) {
+        synchronized (lock) {
+            head = tail;
+
+            planning = true;
+            cursor = from;
+            cursorHeadingX = headingX;
+            cursorHeadingZ = headingZ;
+            random = course.random.split();
+            cursorSpecial = null;
+        }
+
+        schedule();
+    }
+
+    /**
+     * Updates the settings used in planning. Main thread only.
+     *
+     * @param useSpecialBlocks Whether special blocks may be planned.
+     */
+    public void configure(boolean useSpecialBlocks) {
+        this.useSpecialBlocks = useSpecialBlocks;
+    }
+
+    /**
+     * Moves to the next planned jump, if there is one. Main thread only.
+     *
+     * @return True when a jump is available, false if not.
+     * @see #getPosition()
+     */
+    public boolean next() {
+        long h = head;
+
+        if (h == tail) {
+            schedule();
+            return false;
+        }
+
+        int slot = (int) (h & mask);
+        int jump = jumps[slot];
+
+        position = positions[slot];
+        special = (jump >> 8) - 1;
+        headingX = ((jump >> 4) & 0xF) - 1;
+        headingZ = (jump & 0xF) - 1;
+
+        head = h + 1;
+
+        if (tail - head <= mask / 2) {
+            schedule();
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves to the next jump, planning it on the calling thread if none is available. Main thread only.
+     */
+    public void nextNow() {
+        synchronized (lock) {
+            if (head == tail) {
+                plan();
+            }
+        }
+
+        next();
+    }
+
+    /**
+     * @return The packed position of the current jump.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return The index of the special block in {@link Course#specials}, or {@link #NO_SPECIAL}.
+     */
+    public int getSpecial() {
+        return special;
+    }
+
+    /**
+     * @return The x component of the heading at the current jump.
+     */
+    public int getHeadingX() {
+        return headingX;
+    }
+
+    /**
+     * @return The z component of the heading at the current jump.
+     */
+    public int getHeadingZ() {
+        return headingZ;
+    }
+
+    /**
+     * @return The amount of planned jumps that haven't been placed yet.
+     */
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    // plans jumps asynchronously until the queue is full
+    private void schedule() {
+        if (course.stopped || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                while (!course.stopped) {
+                    synchronized (lock) {
+                        if (tail - head > mask || !planning) {
+                            break;
+                        }
+
+                        plan();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+        });
+    }
+
+    // plans a single jump and pushes it to the queue, requires lock
+    private void plan() {
+        int height = course.heightDistribution.sample(random);
+        int distance = course.distanceDistribution.sample(random);
+
+        Special special = null;
+        Course.JumpType type = course.jumpTypeDistributions[useSpecialBlocks ? 2 : 0].sample(random);
+        if (type == Course.JumpType.SPECIAL && specials) {
+            special = course.specialDistribution.sample(random);
+        }
+
+        int x = BlockHistory.unpackX(cursor);
+        int y = BlockHistory.unpackY(cursor);
+        int z = BlockHistory.unpackZ(cursor);
+
+        int recommendedX = director.getRecommendedHeadingX(x);
+        int recommendedZ = director.getRecommendedHeadingZ(z);
+
+        if (recommendedX != 0 || recommendedZ != 0) {
+            cursorHeadingX = recommendedX;
+            cursorHeadingZ = recommendedZ;
+        }
+
+        int recommendedHeight = director.getRecommendedHeight(y);
+
+        if (recommendedHeight != 0) {
+            height = recommendedHeight;
+        }
+
+        // ensure special is possible
+        if (cursorSpecial != null) {
+            height = Math.min(height, cursorSpecial.maxHeight());
+            distance = Math.min(distance, cursorSpecial.maxDistance());
+        }
+
+        if (height > 0) {
+            distance = Math.max(distance - height, 1);
+        }
+
+        int forward = distance + 1;
+        int sideways = JumpOffsetGenerator.sample(height, distance, standardDeviation, random);
+
+        // rotate offset to match heading
+        double cos = director.getCos(cursorHeadingX, cursorHeadingZ);
+        double sin = director.getSin(cursorHeadingX, cursorHeadingZ);
+
+        int nx = (int) Math.floor(x + (cos * forward + sin * sideways));
+        int ny = y + height + (special == null ? 0 : special.offsetY());
+        int nz = (int) Math.floor(z + (-sin * forward + cos * sideways));
+
+        cursor = BlockHistory.pack(nx, ny, nz);
+        cursorSpecial = special;
+
+        int index = special == null ? NO_SPECIAL : special.index();
+
+        int slot = (int) (tail & mask);
+        positions[slot] = cursor;
+        jumps[slot] = ((index + 1) << 8) | ((cursorHeadingX + 1) << 4) | (cursorHeadingZ + 1);
+        tail = tail + 1;
+    }
+}
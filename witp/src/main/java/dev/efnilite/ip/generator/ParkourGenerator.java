@@ -8,7 +8,9 @@ import dev.efnilite.ip.api.event.ParkourSchematicGenerateEvent;
 import dev.efnilite.ip.api.event.ParkourScoreEvent;
 import dev.efnilite.ip.config.Config;
 import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.Profile.Setting;
 import dev.efnilite.ip.leaderboard.Leaderboard;
+import dev.efnilite.ip.leaderboard.PeriodLeaderboard;
 import dev.efnilite.ip.leaderboard.Score;
 import dev.efnilite.ip.menu.Menus;
 import dev.efnilite.ip.mode.Mode;
@@ -19,12 +21,12 @@ import dev.efnilite.ip.reward.Rewards;
 import dev.efnilite.ip.schematic.Schematic;
 import dev.efnilite.ip.schematic.Schematics;
 import dev.efnilite.ip.session.Session;
+import dev.efnilite.ip.session.SessionScheduler;
 import dev.efnilite.ip.style.Style;
-import dev.efnilite.ip.util.Probs;
+import dev.efnilite.ip.world.BlockClearer;
 import dev.efnilite.ip.world.WorldDivider;
 import dev.efnilite.vilib.particle.ParticleData;
 import dev.efnilite.vilib.particle.Particles;
-import dev.efnilite.vilib.util.Colls;
 import dev.efnilite.vilib.util.Locations;
 import dev.efnilite.vilib.util.Task;
 import org.bukkit.Location;
@@ -33,7 +35,6 @@ import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.type.Fence;
 import org.bukkit.block.data.type.GlassPane;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
@@ -42,6 +43,7 @@ import org.jetbrains.annotations.Nullable;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * The class that generates the parkour, which each {@link ParkourPlayer} has.
@@ -49,32 +51,7 @@ import java.util.*;
  * @author Efnilite
  * @since 5.0.0
  */
-public class ParkourGenerator {
-
-    /**
-     * The amount of blocks that trail behind the player.
-     */
-    public static final int BLOCK_TRAIL = 2;
-
-    /**
-     * This generator's score
-     */
-    public int score = 0;
-
-    /**
-     * The total score achieved in this Generator instance
-     */
-    public int totalScore = 0;
-
-    /**
-     * The schematic cooldown
-     */
-    public int schematicCooldown = Option.SCHEMATIC_COOLDOWN;
-
-    /**
-     * Whether this generator has been stopped
-     */
-    public boolean stopped = false;
+public class ParkourGenerator extends Course implements BlockAccess {
 
     /**
      * The zone in which the parkour can take place. (playable area)
@@ -86,11 +63,6 @@ public class ParkourGenerator {
      */
     public ParkourPlayer player;
 
-    /**
-     * The task used in checking the player's current location
-     */
-    public BukkitTask task;
-
     /**
      * Where blocks from schematics spawn
      */
@@ -106,56 +78,25 @@ public class ParkourGenerator {
      */
     public Instant start;
 
-    /**
-     * The direction of the parkour
-     */
-    public Vector heading = Option.HEADING.clone();
-
-    /**
-     * Generator options
-     */
-    public final List<GeneratorOption> generatorOptions;
-
     /**
      * The {@link Session} associated with this Generator.
      */
     public final Session session;
 
-    /**
-     * This Generator's {@link Profile}.
-     */
-    public final Profile profile = new Profile();
-
     /**
      * The island instance.
      */
     public final Island island;
 
     /**
-     * The chances of which distance the jump should have
-     */
-    public final Map<Integer, Double> distanceChances = new HashMap<>();
-
-    /**
-     * The chances of which height the jump should have
-     */
-    public final Map<Integer, Double> heightChances = new HashMap<>();
-
-    /**
-     * The chances of which type of special jump
-     */
-    public final Map<BlockData, Double> specialChances = new HashMap<>();
-
-    /**
-     * The chances of default jump types: schematic, 'special' (ice, etc.) or normal
+     * The chances of which type of special jump. Kept in insertion order, so the same seed always samples the same blocks.
      */
-    public final Map<JumpType, Double> defaultChances = new HashMap<>();
+    public final Map<BlockData, Double> specialChances = new LinkedHashMap<>();
 
     /**
-     * Whether the schematic should be deleted on the next jump.
+     * The blocks of {@link #specialChances}, indexed like {@link #specials}.
      */
-    protected boolean deleteSchematic = false;
-    protected boolean waitForSchematicCompletion = false;
+    protected BlockData[] specialBlocks = new BlockData[0];
 
     /**
      * The last location the player was found standing in
@@ -167,16 +108,6 @@ public class ParkourGenerator {
      */
     protected List<Block> schematicBlocks = new ArrayList<>();
 
-    /**
-     * The player's current position index.
-     */
-    protected int lastPositionIndexPlayer = -1;
-
-    /**
-     * The history of generated blocks. The most recently generated block is the last item in the list.
-     */
-    protected List<Block> history = new ArrayList<>();
-
     /**
      * Creates a new ParkourGenerator instance
      *
@@ -185,14 +116,18 @@ public class ParkourGenerator {
      * @param generatorOptions The options.
      */
     public ParkourGenerator(@NotNull Session session, @Nullable Schematic schematic, GeneratorOption... generatorOptions) {
+        super(director(session), session.seed, Arrays.asList(generatorOptions),
+                runnable -> Task.create(IP.getPlugin()).async().execute(runnable).run(),
+                Math.max(16, Option.POSSIBLE_LEADS.stream().mapToInt(Integer::intValue).max().orElse(0) + 1));
+
         this.session = session;
-        this.generatorOptions = Arrays.asList(generatorOptions);
 
         player = session.getPlayers().get(0);
         island = new Island(session, schematic);
         zone = WorldDivider.toSelection(session);
 
         calculateChances();
+        compileChances();
     }
 
     /**
@@ -205,14 +140,23 @@ public class ParkourGenerator {
         this(session, Schematics.CACHE.get("spawn-island"), generatorOptions);
     }
 
+    // the director of the playable area of a session
+    private static JumpDirector director(Session session) {
+        Location[] zone = WorldDivider.toSelection(session);
+
+        return new JumpDirector(BoundingBox.of(zone[0], zone[1]), Option.HEADING);
+    }
+
     /**
      * Ensures generator preferences in profile can't be overridden by the player changing settings.
+     * Use {@link Profile#override(Setting, int)} and its variants to set these preferences.
      */
     public void overrideProfile() { }
 
     /**
      * Calculates all chances for every variable.
      * Modification is possible in the generator constructor or through external map changes.
+     * Changes made after construction are applied after calling {@link #compileChances()}.
      */
     protected void calculateChances() {
         defaultChances.clear();
@@ -239,13 +183,37 @@ public class ParkourGenerator {
         specialChances.put(Material.OAK_FENCE.createBlockData(), Option.SPECIAL_FENCE);
     }
 
+    /**
+     * Compiles the chance maps into distributions, so they don't have to be rebuilt on every jump.
+     */
+    @Override
+    public void compileChances() {
+        specials.clear();
+        specialBlocks = new BlockData[specialChances.size()];
+
+        int index = 0;
+        for (Map.Entry<BlockData, Double> entry : specialChances.entrySet()) {
+            BlockData data = entry.getKey();
+
+            // slabs can't be jumped up from, panes are hard to jump far from and fences are 1.5 blocks high
+            specials.put(new Special(index,
+                    data.getMaterial() == Material.SMOOTH_QUARTZ_SLAB ? 0 : Integer.MAX_VALUE,
+                    data instanceof GlassPane ? 3 : Integer.MAX_VALUE,
+                    data instanceof Fence ? -1 : 0), entry.getValue());
+
+            specialBlocks[index++] = data;
+        }
+
+        super.compileChances();
+    }
+
     /**
      * Generates particles around blocks.
      *
      * @param blocks The blocks.
      */
     protected void particles(List<Block> blocks) {
-        if (!profile.get("particles").asBoolean()) {
+        if (!profile.getBoolean(Setting.PARTICLES)) {
             return;
         }
 
@@ -271,7 +239,7 @@ public class ParkourGenerator {
      * @param blocks The blocks.
      */
     protected void sound(List<Block> blocks) {
-        if (!profile.get("sound").asBoolean()) {
+        if (!profile.getBoolean(Setting.SOUND)) {
             return;
         }
 
@@ -281,68 +249,19 @@ public class ParkourGenerator {
     }
 
     protected BlockData selectBlockData() {
-        Style style = Registry.getStyle(profile.get("style").value());
+        Style style = Registry.getStyle(profile.getString(Setting.STYLE));
 
         if (style == null) {
-            profile.set("style", Registry.getStyles().get(0).name());
+            profile.set(Setting.STYLE, Registry.getStyles().get(0).name());
             return selectBlockData();
         }
 
         return style.get(session);
     }
 
-    protected List<Block> selectBlocks() {
-        int height = Probs.random(heightChances);
-        int distance = Probs.random(distanceChances);
-
-        return List.of(selectNext(getLatest(), distance, height));
-    }
-
-    // Selects the next block that will continue the parkour.
-    // This is done by choosing a random value for the sideways movement.
-    // Based on this sideways movement, a value for forward movement will be chosen.
-    // This is done to ensure players are able to complete the jump.
-    protected Block selectNext(Block current, int distance, int height) {
-        JumpDirector director = new JumpDirector(BoundingBox.of(zone[0], zone[1]), getLatest().getLocation().toVector());
-
-        Vector recommendedHeading = director.getRecommendedHeading();
-
-        if (!recommendedHeading.equals(new Vector(0, 0, 0))) {
-            heading = recommendedHeading;
-        }
-
-        int recommendedHeight = director.getRecommendedHeight();
-
-        if (recommendedHeight != 0) {
-            height = recommendedHeight;
-        }
-
-        // ensure special is possible
-        switch (getLatest().getType()) {
-            case SMOOTH_QUARTZ_SLAB -> height = Math.min(height, 0);
-            case GLASS_PANE -> distance = Math.min(distance, 3);
-        }
-
-        if (height > 0) {
-            distance = Math.max(distance - height, 1);
-        }
-
-        double mean = 0;
-        double standardDeviation = generatorOptions.contains(GeneratorOption.REDUCE_RANDOM_BLOCK_SELECTION_ANGLE) ? 0.6 : 1;
-
-        int randomOffset = new JumpOffsetGenerator(height, distance).getRandomOffset(mean, standardDeviation);
-
-        Vector offset = new Vector(distance + 1, height, randomOffset);
-
-        // rotate offset to match heading
-        offset.rotateAroundY(angleInY(heading, Option.HEADING.clone()));
-
-        return current.getLocation().add(offset).getBlock();
-    }
-
+    @Override
     protected void score() {
-        score++;
-        totalScore++;
+        super.score();
 
         checkRewards();
         new ParkourScoreEvent(player).call();
@@ -383,22 +302,18 @@ public class ParkourGenerator {
         Menus.PARKOUR_SETTINGS.open(player);
     }
 
+    /**
+     * Starts ticking this generator with {@link SessionScheduler}.
+     */
     public void startTick() {
-        task = Task.create(IP.getPlugin())
-            .repeat(generatorOptions.contains(GeneratorOption.INCREASED_TICK_ACCURACY) ? 1 : Option.GENERATOR_CHECK)
-            .execute(this::tick)
-            .run();
+        SessionScheduler.register(this);
     }
 
     /**
-     * Starts the check
+     * Updates the time, scoreboard and saturation of all players and updates all spectators.
+     * Not time-critical, so {@link SessionScheduler} may delay this when the server is busy.
      */
-    public void tick() {
-        if (stopped) {
-            task.cancel();
-            return;
-        }
-
+    public void updatePlayers() {
         getPlayers().forEach(other -> {
             updateVisualTime(other, other.selectedTime);
             other.updateScoreboard(this);
@@ -406,6 +321,17 @@ public class ParkourGenerator {
         });
 
         getSpectators().forEach(ParkourSpectator::update);
+    }
+
+    /**
+     * Checks the player's location and score. Called by {@link SessionScheduler}.
+     */
+    public void tick() {
+        if (stopped) {
+            return;
+        }
+
+        drain(false);
 
         if (player.getLocation().subtract(lastStandingPlayerLocation).getY() < -10) { // fall check
             fall();
@@ -422,53 +348,12 @@ public class ParkourGenerator {
             blockBelowPlayer = belowPlayer.getBlock();
         }
 
-        if (schematicBlocks.contains(blockBelowPlayer) && blockBelowPlayer.getType() == Material.RED_WOOL && !deleteSchematic) { // Structure deletion check
-            for (int i = 0; i < getDifficultyScore() * 15; i++) {
-                score();
-            }
-            waitForSchematicCompletion = false;
-            schematicCooldown = Option.SCHEMATIC_COOLDOWN;
-            generate(profile.get("blockLead").asInt());
-            deleteSchematic = true;
-            return;
-        }
-
-        if (!history.contains(blockBelowPlayer)) {
-            return; // player is on an unknown block
-        }
-
-        int currentIndex = history.indexOf(blockBelowPlayer); // current index of the player
-        int deltaFromLast = currentIndex - lastPositionIndexPlayer;
-
-        if (deltaFromLast <= 0) { // the player is actually making progress and not going backwards (current index is higher than the previous)
+        if (!progress(BlockHistory.pack(blockBelowPlayer))) {
             return;
         }
 
         lastStandingPlayerLocation = player.getLocation();
 
-        int blockLead = profile.get("blockLead").asInt();
-
-        int deltaCurrentTotal = history.size() - currentIndex; // delta between current index and total
-        if (deltaCurrentTotal <= blockLead) {
-            generate(blockLead - deltaCurrentTotal); // generate the remaining amount so it will match
-        }
-        lastPositionIndexPlayer = currentIndex;
-
-        for (int i = currentIndex - BLOCK_TRAIL - 1; i >= currentIndex - 4 * BLOCK_TRAIL; i--) {
-            // avoid setting beginning block to air
-            if (i <= 0) {
-                continue;
-            }
-
-            history.get(i).setType(Material.AIR);
-        }
-
-        deleteSchematic();
-
-        for (int i = 0; i < (Option.ALL_POINTS ? deltaFromLast : 1); i++) { // score the difference
-            score();
-        }
-
         if (start == null) { // start stopwatch when first point is achieved
             start = Instant.now();
         }
@@ -492,28 +377,20 @@ public class ParkourGenerator {
     public void reset(boolean regenerate) {
         stopped = !regenerate;
 
-        if (!regenerate && task == null) {
+        if (!regenerate && !SessionScheduler.isRegistered(this)) {
             IP.logging().severe("## Incomplete joining setup.");
             IP.logging().severe("## There has probably been an error somewhere. Please report this error!");
             IP.logging().severe("## You don't have to report this warning.");
         }
 
-        lastPositionIndexPlayer = 0;
-        if (history.size() > 0) {
-            history.remove(0);
-            history.forEach(block -> block.setType(Material.AIR, false));
-            history.clear();
-        }
-
-        waitForSchematicCompletion = false;
-        deleteSchematic = true;
-        deleteSchematic();
+        clearCourse();
 
         Leaderboard leaderboard = getMode().getLeaderboard();
         int record = leaderboard != null ? leaderboard.get(player.getUUID()).score() : 0;
-        String time = getTime();
+        int millis = getMillis();
+        String time = Score.timeFromMillis(millis);
 
-        if (profile.get("showFallMessage").asBoolean()) {
+        if (profile.getBoolean(Setting.SHOW_FALL_MESSAGE)) {
             String message;
             int number = 0;
 
@@ -537,13 +414,16 @@ public class ParkourGenerator {
             }
         }
 
-        if (leaderboard != null && score > record) {
-            registerScore(getTime(), Double.toString(getDifficultyScore()).substring(0, 3), score);
+        if (leaderboard != null && score > 0) {
+            registerScore(millis, (float) getDifficultyScore(), score);
+        }
+
+        if (start != null) {
+            RunLog.append(getMode().getName(), player.getUUID(), player.getName(), seed, score, time, profile);
         }
 
-        score = 0;
+        nextRun();
         start = null;
-        heading = Option.HEADING;
 
         if (regenerate) { // generate back the blocks
             player.teleport(playerSpawn);
@@ -558,103 +438,103 @@ public class ParkourGenerator {
         }
     }
 
-    protected void registerScore(String time, String difficulty, int score) {
+    /**
+     * Registers a score for all players on the leaderboard and the period leaderboards of the mode,
+     * on each leaderboard where it's higher than their current score.
+     */
+    protected void registerScore(int millis, float difficulty, int score) {
         Leaderboard leaderboard = getMode().getLeaderboard();
 
         if (leaderboard == null) {
             return;
         }
 
-        getPlayers().forEach(player -> leaderboard.put(player.getUUID(), new Score(player.getName(), time, difficulty, score)));
-    }
+        Collection<PeriodLeaderboard> periods = getMode().getPeriodLeaderboards().values();
 
-    private void deleteSchematic() {
-        if (!deleteSchematic) {
-            return;
-        }
+        for (ParkourPlayer player : getPlayers()) {
+            Score entry = new Score(player.getName(), millis, difficulty, score);
 
-        schematicBlocks.forEach(block -> block.setType(Material.AIR));
-        schematicBlocks.clear();
+            leaderboard.putIfHigher(player.getUUID(), entry);
+            periods.forEach(period -> period.submit(player.getUUID(), entry));
+        }
+    }
 
-        deleteSchematic = false;
-        schematicCooldown = Option.SCHEMATIC_COOLDOWN;
+    @Override
+    protected boolean isReplay() {
+        return session.replay;
     }
 
-    /**
-     * Generates the next parkour block or schematic.
-     */
-    public void generate() {
-        if (waitForSchematicCompletion) {
-            return;
-        }
+    @Override
+    public void setBlock(long position, int special) {
+        Block block = getBlock(position);
+        BlockData data = special == JumpPlanner.NO_SPECIAL ? selectBlockData() : specialBlocks[special];
 
-        Map<JumpType, Double> chances = new HashMap<>(defaultChances);
-        if (schematicCooldown > 0 || generatorOptions.contains(GeneratorOption.DISABLE_SCHEMATICS) || profile.get("schematicDifficulty").asDouble() == 0.0 || !schematicBlocks.isEmpty()) {
-            chances.remove(JumpType.SCHEMATIC);
-        }
-        if (!profile.get("useSpecialBlocks").asBoolean()) {
-            chances.remove(JumpType.SPECIAL);
-        }
-        if (chances.isEmpty()) {
-            chances.put(JumpType.DEFAULT, 1.0);
-        }
+        BlockClearer.cancel(position);
+        block.setBlockData(data, data instanceof Fence || data instanceof GlassPane);
 
-        JumpType jump = Probs.random(chances);
-        if (jump == JumpType.SCHEMATIC) {
-            double difficulty = profile.get("schematicDifficulty").asDouble();
+        List<Block> blocks = List.of(block);
 
-            Schematic schematic = Schematics.CACHE.get(Colls.random(Schematics.CACHE.keySet().stream()
-                    .filter(name -> name.contains("parkour-") && getDifficulty(name) <= difficulty)
-                    .toList()));
+        new ParkourBlockGenerateEvent(blocks, this, player).call();
 
-            schematicBlocks = rotatedPaste(schematic, selectBlocks().get(0).getLocation());
+        particles(blocks);
+        sound(blocks);
+    }
 
-            particles(schematicBlocks);
-            sound(schematicBlocks);
+    @Override
+    public void setAir(long position) {
+        getBlock(position).setType(Material.AIR);
+    }
 
-            new ParkourSchematicGenerateEvent(schematic, this, player).call();
+    @Override
+    public void clear(long position) {
+        BlockClearer.clear(session, getBlock(position));
+    }
 
-            if (schematicBlocks.isEmpty()) {
-                IP.logging().severe("Error while trying to paste schematic %s".formatted(schematic.getFile().getName()) + new NoSuchElementException("No schematic blocks found"));
-                return;
-            }
+    @Override
+    public boolean isAir(long position) {
+        return getBlock(position).getType().isAir();
+    }
 
-            schematicCooldown = Option.SCHEMATIC_COOLDOWN;
-            waitForSchematicCompletion = true;
-            return;
-        }
+    @Override
+    public long paste(long position, int headingX, int headingZ, RandomGenerator random) {
+        double difficulty = profile.getDouble(Setting.SCHEMATIC_DIFFICULTY);
 
-        List<Block> blocks = selectBlocks();
+        // sorted to make the selection only depend on the seed
+        List<String> names = Schematics.CACHE.keySet().stream()
+                .filter(name -> name.contains("parkour-") && getDifficulty(name) <= difficulty)
+                .sorted()
+                .toList();
 
-        if (blocks.isEmpty()) {
-            IP.logging().severe("Error while trying to generate parkour" + new NoSuchElementException("No blocks to generate found"));
-            return;
-        }
+        Schematic schematic = Schematics.CACHE.get(names.get(random.nextInt(names.size())));
 
-        List<Block> movedBlocks = new ArrayList<>();
-        for (Block block : blocks) {
-            BlockData data = (jump == JumpType.SPECIAL && !generatorOptions.contains(GeneratorOption.DISABLE_SPECIAL)) ? Probs.random(specialChances) : selectBlockData();
+        Location end = rotatedPaste(schematic, getBlock(position).getLocation());
+        schematicBlocks.forEach(BlockClearer::cancel);
 
-            if (data instanceof Fence) {
-                block = block.getLocation().subtract(0, 1, 0).getBlock();
-            }
+        particles(schematicBlocks);
+        sound(schematicBlocks);
 
-            block.setBlockData(data, data instanceof Fence || data instanceof GlassPane);
-            movedBlocks.add(block);
-        }
+        new ParkourSchematicGenerateEvent(schematic, this, player).call();
 
-        new ParkourBlockGenerateEvent(movedBlocks, this, player).call();
+        if (end == null || schematicBlocks.isEmpty()) {
+            IP.logging().severe("Error while trying to paste schematic %s".formatted(schematic.getFile().getName()) + new NoSuchElementException("No schematic blocks found"));
+            return NONE;
+        }
 
-        particles(movedBlocks);
-        sound(movedBlocks);
+        return BlockHistory.pack(end.getBlockX(), end.getBlockY(), end.getBlockZ());
+    }
 
-        history.addAll(movedBlocks);
-        schematicCooldown--;
+    @Override
+    public void removeSchematic() {
+        BlockClearer.clear(session, schematicBlocks);
+        schematicBlocks.clear();
     }
 
-    private @NotNull List<Block> rotatedPaste(Schematic schematic, Location location) {
+    // pastes the schematic into schematicBlocks and returns the location of its end
+    private @Nullable Location rotatedPaste(Schematic schematic, Location location) {
+        schematicBlocks = new ArrayList<>();
+
         if (schematic == null || location == null) {
-            return Collections.emptyList();
+            return null;
         }
 
         Optional<Vector> optionalStart = schematic.getVectorBlockMap().entrySet().stream()
@@ -669,17 +549,19 @@ public class ParkourGenerator {
 
         if (optionalStart.isEmpty()) {
             IP.logging().severe("Error while trying to find start of schematic " + "check if you placed a lime wool block");
-            return Collections.emptyList();
+            return null;
         }
         if (optionalEnd.isEmpty()) {
             IP.logging().severe("Error while trying to find end of schematic " + "check if you placed a red wool block");
-            return Collections.emptyList();
+            return null;
         }
 
         Vector start = optionalStart.get();
         Vector end = optionalEnd.get();
         Vector startToEnd = end.clone().subtract(start);
 
+        Vector heading = getHeading();
+
         /// snapped vector, supports no rotation if x == z
         Vector snapped;
         if (startToEnd.equals(heading)) {
@@ -696,8 +578,8 @@ public class ParkourGenerator {
         Location rotatedStart = location.clone().subtract(start.clone().rotateAroundY(snappedAngle));
         Vector rotatedStartToEnd = startToEnd.clone().rotateAroundY(snappedAngle);
 
-        history.add(location.clone().add(rotatedStartToEnd).subtract(0, 1, 0).getBlock());
-        return schematic.paste(rotatedStart, snappedAngle); // only yaw
+        schematicBlocks = schematic.paste(rotatedStart, snappedAngle); // only yaw
+        return location.clone().add(rotatedStartToEnd);
     }
 
     private double angleInY(Vector a, Vector b) {
@@ -706,7 +588,16 @@ public class ParkourGenerator {
     }
 
     protected Block getLatest() {
-        return history.get(history.size() - 1);
+        return getBlock(history.latest());
+    }
+
+    /**
+     * @param key The packed position.
+     * @return The block at the packed position in the parkour world.
+     * @see BlockHistory#pack(int, int, int)
+     */
+    protected Block getBlock(long key) {
+        return zone[0].getWorld().getBlockAt(BlockHistory.unpackX(key), BlockHistory.unpackY(key), BlockHistory.unpackZ(key));
     }
 
     private double getDifficulty(String fileName) {
@@ -719,17 +610,6 @@ public class ParkourGenerator {
         return Config.SCHEMATICS.getDouble(path);
     }
 
-    /**
-     * Generates a specific amount of blocks ahead of the player
-     *
-     * @param amount The amount
-     */
-    public void generate(int amount) {
-        for (int i = 0; i < amount + 1; i++) {
-            generate();
-        }
-    }
-
     /**
      * Generates the first few blocks (which come off the spawn island)
      *
@@ -740,34 +620,30 @@ public class ParkourGenerator {
         playerSpawn = spawn;
         lastStandingPlayerLocation = spawn;
         blockSpawn = block;
-        history.add(blockSpawn.getBlock());
 
-        generate(profile.get("blockLead").asInt());
+        start(BlockHistory.pack(blockSpawn.getBlock()));
     }
 
     /**
-     * Calculates a score between 0 (inclusive) and 1 (inclusive) to determine how difficult it was for
-     * the player to achieve this score using their settings.
+     * @return The direction of the parkour.
      */
-    public double getDifficultyScore() {
-        double score = 0;
-
-        if (profile.get("useSpecialBlocks").asBoolean()) score += 0.5;
-        if (profile.get("useStructure").asBoolean()) {
-            if (profile.get("schematicDifficulty").asDouble() <= 0.25) score += 0.2;
-            if (profile.get("schematicDifficulty").asDouble() <= 0.5) score += 0.3;
-            if (profile.get("schematicDifficulty").asDouble() <= 0.75) score += 0.4;
-            if (profile.get("schematicDifficulty").asDouble() <= 1.0) score += 0.5;
-        }
-
-        return score;
+    @NotNull
+    public Vector getHeading() {
+        return new Vector(headingX, 0, headingZ);
     }
 
     /**
      * @return The current duration of the run.
      */
     public String getTime() {
-        return Score.timeFromMillis(start != null ? (int) Duration.between(start, Instant.now()).toMillis() : 0);
+        return Score.timeFromMillis(getMillis());
+    }
+
+    /**
+     * @return The current duration of the run in millis.
+     */
+    public int getMillis() {
+        return start != null ? (int) Duration.between(start, Instant.now()).toMillis() : 0;
     }
 
     /**
@@ -792,8 +668,4 @@ public class ParkourGenerator {
     public List<ParkourSpectator> getSpectators() {
         return session.getSpectators();
     }
-
-    protected enum JumpType {
-        DEFAULT, SCHEMATIC, SPECIAL
-    }
 }
\ No newline at end of file
@@ -2,32 +2,299 @@ package dev.efnilite.ip.generator;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Wrapper class for setting storing.
- * Allows different modes to change settings without them being saved as being player-selected.
+ * <p>Wrapper class for setting storing.
+ * Allows different modes to change settings without them being saved as being player-selected.</p>
+ * <p>Known settings are stored in primitive slots, indexed by {@link Setting}.
+ * Values set with {@code override} take precedence over player-selected values until {@link #clearOverrides()} is called.</p>
  */
 public class Profile {
 
+    private static final int SIZE = Setting.values().length;
+
+    private final Values selected = new Values();
+    private final Values overrides = new Values();
+    private final boolean[] overridden = new boolean[SIZE];
+
+    /**
+     * Settings which aren't known, only available through the string API.
+     */
+    private final Map<String, String> other = new HashMap<>();
+
+    /**
+     * @param setting The setting.
+     * @return The int value of setting.
+     */
+    public int getInt(@NotNull Setting setting) {
+        return values(setting).ints[setting.ordinal()];
+    }
+
+    /**
+     * @param setting The setting.
+     * @return The double value of setting.
+     */
+    public double getDouble(@NotNull Setting setting) {
+        return values(setting).doubles[setting.ordinal()];
+    }
+
+    /**
+     * @param setting The setting.
+     * @return The boolean value of setting.
+     */
+    public boolean getBoolean(@NotNull Setting setting) {
+        return values(setting).booleans[setting.ordinal()];
+    }
+
+    /**
+     * @param setting The setting.
+     * @return The string value of setting. Empty if it hasn't been set.
+     */
+    @NotNull
+    public String getString(@NotNull Setting setting) {
+        String value = values(setting).strings[setting.ordinal()];
+
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Sets a player-selected value.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
+     */
+    @NotNull
+    public Profile set(@NotNull Setting setting, int value) {
+        selected.put(setting, value);
+
+        return this;
+    }
+
     /**
-     * Map of the setting's name and the value.
+     * Sets a player-selected value.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
      */
-    public final Map<String, ProfileValue> settings = new HashMap<>();
+    @NotNull
+    public Profile set(@NotNull Setting setting, double value) {
+        selected.put(setting, value);
+
+        return this;
+    }
 
+    /**
+     * Sets a player-selected value.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
+     */
+    @NotNull
+    public Profile set(@NotNull Setting setting, boolean value) {
+        selected.put(setting, value);
+
+        return this;
+    }
+
+    /**
+     * Sets a player-selected value.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
+     */
+    @NotNull
+    public Profile set(@NotNull Setting setting, @NotNull String value) {
+        selected.put(setting, value);
+
+        return this;
+    }
+
+    /**
+     * Overrides a value, regardless of what the player selected.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
+     */
+    @NotNull
+    public Profile override(@NotNull Setting setting, int value) {
+        overrides.put(setting, value);
+        overridden[setting.ordinal()] = true;
+
+        return this;
+    }
+
+    /**
+     * Overrides a value, regardless of what the player selected.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
+     */
+    @NotNull
+    public Profile override(@NotNull Setting setting, double value) {
+        overrides.put(setting, value);
+        overridden[setting.ordinal()] = true;
+
+        return this;
+    }
+
+    /**
+     * Overrides a value, regardless of what the player selected.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
+     */
+    @NotNull
+    public Profile override(@NotNull Setting setting, boolean value) {
+        overrides.put(setting, value);
+        overridden[setting.ordinal()] = true;
+
+        return this;
+    }
+
+    /**
+     * Overrides a value, regardless of what the player selected.
+     *
+     * @param setting The setting.
+     * @param value   The value.
+     * @return This instance.
+     */
+    @NotNull
+    public Profile override(@NotNull Setting setting, @NotNull String value) {
+        overrides.put(setting, value);
+        overridden[setting.ordinal()] = true;
+
+        return this;
+    }
+
+    /**
+     * Removes all overrides, so player-selected values are used again.
+     */
+    public void clearOverrides() {
+        Arrays.fill(overridden, false);
+    }
+
+    /**
+     * Sets a player-selected value by name. Compatibility adapter for the typed API.
+     *
+     * @param setting The setting name, like "blockLead".
+     * @param value   The string value.
+     * @return This instance.
+     * @see #set(Setting, int)
+     */
     @NotNull
     public Profile set(@NotNull String setting, @NotNull String value) {
-        settings.put(setting, new ProfileValue(value));
+        Setting known = Setting.of(setting);
+
+        if (known == null) {
+            other.put(setting, value);
+            return this;
+        }
+
+        switch (known.type) {
+            case INT -> selected.put(known, Integer.parseInt(value));
+            case DOUBLE -> selected.put(known, Double.parseDouble(value));
+            case BOOLEAN -> selected.put(known, value.equals("true"));
+            case STRING -> selected.put(known, value);
+        }
 
         return this;
     }
 
+    /**
+     * Gets a value by name. Compatibility adapter for the typed API.
+     *
+     * @param setting The setting name, like "blockLead".
+     * @return The value.
+     * @see #getInt(Setting)
+     */
     @NotNull
     public ProfileValue get(@NotNull String setting) {
-        ProfileValue value = settings.get(setting);
+        Setting known = Setting.of(setting);
+
+        if (known == null) {
+            return new ProfileValue(other.getOrDefault(setting, ""));
+        }
+
+        Values values = values(known);
+        if (!values.set[known.ordinal()]) {
+            return new ProfileValue("");
+        }
+
+        return new ProfileValue(switch (known.type) {
+            case INT -> Integer.toString(getInt(known));
+            case DOUBLE -> Double.toString(getDouble(known));
+            case BOOLEAN -> Boolean.toString(getBoolean(known));
+            case STRING -> getString(known);
+        });
+    }
+
+    private Values values(Setting setting) {
+        return overridden[setting.ordinal()] ? overrides : selected;
+    }
 
-        return value == null ? new ProfileValue("") : value;
+    /**
+     * A known setting.
+     */
+    public enum Setting {
+
+        SCHEMATIC_DIFFICULTY("schematicDifficulty", Type.DOUBLE),
+        BLOCK_LEAD("blockLead", Type.INT),
+        PARTICLES("particles", Type.BOOLEAN),
+        SOUND("sound", Type.BOOLEAN),
+        USE_SPECIAL_BLOCKS("useSpecialBlocks", Type.BOOLEAN),
+        SHOW_FALL_MESSAGE("showFallMessage", Type.BOOLEAN),
+        SHOW_SCOREBOARD("showScoreboard", Type.BOOLEAN),
+        SELECTED_TIME("selectedTime", Type.INT),
+        STYLE("style", Type.STRING),
+        USE_STRUCTURE("useStructure", Type.BOOLEAN);
+
+        private static final Map<String, Setting> BY_KEY = new HashMap<>();
+
+        static {
+            for (Setting setting : values()) {
+                BY_KEY.put(setting.key, setting);
+            }
+        }
+
+        /**
+         * The name used in the string API.
+         */
+        public final String key;
+
+        /**
+         * The type of the value.
+         */
+        public final Type type;
+
+        Setting(String key, Type type) {
+            this.key = key;
+            this.type = type;
+        }
+
+        /**
+         * @param key The name used in the string API.
+         * @return The setting with this name, null if there is none.
+         */
+        public static Setting of(@NotNull String key) {
+            return BY_KEY.get(key);
+        }
+    }
+
+    /**
+     * The type of setting.
+     */
+    public enum Type {
+        INT, DOUBLE, BOOLEAN, STRING
     }
 
     /**
@@ -58,4 +325,44 @@ public class Profile {
             return Integer.parseInt(value);
         }
     }
-}
\ No newline at end of file
+
+    // a layer of values, indexed by setting ordinal
+    private static class Values {
+
+        private final int[] ints = new int[SIZE];
+        private final double[] doubles = new double[SIZE];
+        private final boolean[] booleans = new boolean[SIZE];
+        private final String[] strings = new String[SIZE];
+        private final boolean[] set = new boolean[SIZE];
+
+        private void put(Setting setting, int value) {
+            check(setting, Type.INT);
+            ints[setting.ordinal()] = value;
+            set[setting.ordinal()] = true;
+        }
+
+        private void put(Setting setting, double value) {
+            check(setting, Type.DOUBLE);
+            doubles[setting.ordinal()] = value;
+            set[setting.ordinal()] = true;
+        }
+
+        private void put(Setting setting, boolean value) {
+            check(setting, Type.BOOLEAN);
+            booleans[setting.ordinal()] = value;
+            set[setting.ordinal()] = true;
+        }
+
+        private void put(Setting setting, String value) {
+            check(setting, Type.STRING);
+            strings[setting.ordinal()] = value;
+            set[setting.ordinal()] = true;
+        }
+
+        private void check(Setting setting, Type type) {
+            if (setting.type != type) {
+                throw new IllegalArgumentException("Setting %s is of type %s, not %s".formatted(setting.key, setting.type, type));
+            }
+        }
+    }
+}
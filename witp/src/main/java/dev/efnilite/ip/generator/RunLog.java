@@ -0,0 +1,163 @@
+package dev.efnilite.ip.generator;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.Profile.Setting;
+import dev.efnilite.vilib.util.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>Appends finished runs to runs.log, so a course can be regenerated later using its seed.</p>
+ * <p>Each line contains the date, mode, uuid, name, seed, score and time of a run, followed by the settings that
+ * change the generated course, see {@link #SETTINGS}. All values are separated by commas.</p>
+ *
+ * @since 5.1.0
+ */
+public final class RunLog {
+
+    /**
+     * The settings that change the generated course, in the order they are logged. Style is last, as it may contain commas.
+     */
+    public static final Setting[] SETTINGS = {Setting.BLOCK_LEAD, Setting.USE_SPECIAL_BLOCKS, Setting.SCHEMATIC_DIFFICULTY, Setting.STYLE};
+
+    /**
+     * The amount of values before the settings.
+     */
+    private static final int COLUMNS = 7;
+
+    private static final Object LOCK = new Object();
+
+    /**
+     * Appends a run to the log asynchronously, if enabled.
+     *
+     * @param mode    The mode name.
+     * @param uuid    The uuid of the player.
+     * @param name    The name of the player.
+     * @param seed    The seed of the run.
+     * @param score   The score.
+     * @param time    The formatted time.
+     * @param profile The profile used in the run.
+     */
+    public static void append(@NotNull String mode, @NotNull UUID uuid, @NotNull String name, long seed, int score,
+                              @NotNull String time, @NotNull Profile profile) {
+        if (!Option.RUN_LOG) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder("%s,%s,%s,%s,%d,%d,%s".formatted(Instant.now(), mode, uuid, name, seed, score, time));
+        for (Setting setting : SETTINGS) {
+            line.append(',').append(profile.get(setting.key).value());
+        }
+        line.append(System.lineSeparator());
+
+        Task.create(IP.getPlugin()).async().execute(() -> write(line.toString())).run();
+    }
+
+    /**
+     * Finds the latest logged run with a seed asynchronously.
+     *
+     * @param seed The seed.
+     * @return The future run, with a null value if no run with seed was logged.
+     */
+    @NotNull
+    public static CompletableFuture<Run> find(long seed) {
+        CompletableFuture<Run> future = new CompletableFuture<>();
+
+        Task.create(IP.getPlugin()).async().execute(() -> future.complete(read(seed))).run();
+
+        return future;
+    }
+
+    private static void write(String line) {
+        File file = IP.getInFolder("runs.log");
+
+        synchronized (LOCK) {
+            try {
+                Files.writeString(file.toPath(), line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException ex) {
+                IP.logging().severe("Error while trying to write run to file %s".formatted(file.getName()) + ex);
+            }
+        }
+    }
+
+    private static Run read(long seed) {
+        File file = IP.getInFolder("runs.log");
+        String match = Long.toString(seed);
+        String[] latest = null;
+
+        synchronized (LOCK) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(",", COLUMNS + SETTINGS.length);
+
+                    if (parts.length >= COLUMNS && parts[4].equals(match)) {
+                        latest = parts;
+                    }
+                }
+            } catch (FileNotFoundException ex) {
+                return null;
+            } catch (IOException ex) {
+                IP.logging().severe("Error while trying to read file %s".formatted(file.getName()) + ex);
+                return null;
+            }
+        }
+
+        if (latest == null) {
+            return null;
+        }
+
+        // runs logged before settings were logged only have a seed
+        Map<Setting, String> settings = new EnumMap<>(Setting.class);
+        for (int i = 0; i < SETTINGS.length && COLUMNS + i < latest.length; i++) {
+            if (!latest[COLUMNS + i].isEmpty()) {
+                settings.put(SETTINGS[i], latest[COLUMNS + i]);
+            }
+        }
+
+        return new Run(seed, settings);
+    }
+
+    /**
+     * A logged run.
+     *
+     * @param seed     The seed.
+     * @param settings The logged settings of the run, by {@link #SETTINGS}.
+     */
+    public record Run(long seed, @NotNull Map<Setting, String> settings) {
+
+        /**
+         * Overrides the settings of profile with the settings of this run, so the same course is generated.
+         *
+         * @param profile The profile.
+         */
+        public void apply(@NotNull Profile profile) {
+            try {
+                settings.forEach((setting, value) -> {
+                    switch (setting.type) {
+                        case INT -> profile.override(setting, Integer.parseInt(value));
+                        case DOUBLE -> profile.override(setting, Double.parseDouble(value));
+                        case BOOLEAN -> profile.override(setting, value.equals("true"));
+                        case STRING -> profile.override(setting, value);
+                    }
+                });
+            } catch (NumberFormatException ex) {
+                IP.logging().severe("Error while trying to apply settings of run %d".formatted(seed) + ex);
+            }
+        }
+    }
+}
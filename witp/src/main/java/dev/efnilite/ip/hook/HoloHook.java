@@ -3,10 +3,13 @@ package dev.efnilite.ip.hook;
 import dev.efnilite.ip.IP;
 import dev.efnilite.ip.api.Registry;
 import dev.efnilite.ip.leaderboard.Leaderboard;
+import dev.efnilite.ip.leaderboard.PeriodLeaderboard;
 import dev.efnilite.ip.leaderboard.Score;
 import dev.efnilite.ip.mode.Mode;
 import me.filoghost.holographicdisplays.api.HolographicDisplaysAPI;
 
+import java.util.Map;
+
 public class HoloHook {
 
     /**
@@ -29,7 +32,7 @@ public class HoloHook {
                 return "?";
             }
 
-            // {ip_leaderboard: default, score, #1}
+            // {ip_leaderboard: default, score, #1} or {ip_leaderboard: default, score, #1, weekly}
             String[] split = argument.replace(" ", "").split(",");
 
             Mode mode = Registry.getMode(split[0].toLowerCase());
@@ -40,6 +43,20 @@ public class HoloHook {
 
             Leaderboard leaderboard = mode.getLeaderboard();
 
+            if (split.length > 3) {
+                PeriodLeaderboard period = mode.getPeriodLeaderboards().entrySet().stream()
+                        .filter(entry -> entry.getKey().name().equalsIgnoreCase(split[3]))
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElse(null);
+
+                if (period == null) {
+                    return "?";
+                }
+
+                leaderboard = period.get();
+            }
+
             String type = split[1].toLowerCase();
             String rank = split[2].replace("#", "");
 
@@ -52,8 +69,8 @@ public class HoloHook {
             return switch (type) {
                 case "score" -> Integer.toString(score.score());
                 case "name" -> score.name();
-                case "time" -> score.time();
-                case "difficulty" -> score.difficulty();
+                case "time" -> score.formatTime();
+                case "difficulty" -> score.formatDifficulty();
                 default -> "?";
             };
         });
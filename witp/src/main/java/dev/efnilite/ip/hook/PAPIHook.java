@@ -10,6 +10,7 @@ import dev.efnilite.ip.mode.Modes;
 import dev.efnilite.ip.player.ParkourPlayer;
 import dev.efnilite.ip.player.ParkourSpectator;
 import dev.efnilite.ip.player.ParkourUser;
+import dev.efnilite.ip.storage.SaveQueue;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -62,6 +63,12 @@ public class PAPIHook extends PlaceholderExpansion {
                 Score score = Modes.DEFAULT.getLeaderboard().getScoreAtRank(1);
                 return score != null ? Integer.toString(score.score()) : "?";
             }
+            case "save_queue" -> {
+                return Integer.toString(SaveQueue.getQueueDepth());
+            }
+            case "save_latency" -> {
+                return Long.toString(SaveQueue.getLatency());
+            }
         }
 
         if (params.contains("player_rank_")) {
@@ -69,7 +76,7 @@ public class PAPIHook extends PlaceholderExpansion {
         } else if (params.contains("score_rank_")) {
             return getInfiniteScore(params.replace("score_rank_", ""), Score::score);
         } else if (params.contains("time_rank_")) {
-            return getInfiniteScore(params.replace("time_rank_", ""), Score::time);
+            return getInfiniteScore(params.replace("time_rank_", ""), Score::formatTime);
         }
 
         // placeholders that require player
@@ -119,7 +126,7 @@ public class PAPIHook extends PlaceholderExpansion {
                     return Integer.toString(Modes.DEFAULT.getLeaderboard().get(player.getUniqueId()).score());
                 }
                 case "high_score_time" -> {
-                    return Modes.DEFAULT.getLeaderboard().get(player.getUniqueId()).time();
+                    return Modes.DEFAULT.getLeaderboard().get(player.getUniqueId()).formatTime();
                 }
                 default -> {
                     if (params.contains("score_until_")) {
@@ -3,17 +3,25 @@ package dev.efnilite.ip.leaderboard;
 import dev.efnilite.ip.IP;
 import dev.efnilite.ip.config.Option;
 import dev.efnilite.ip.menu.community.SingleLeaderboardMenu;
+import dev.efnilite.ip.storage.ScoreChanges;
 import dev.efnilite.vilib.util.Task;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
- * Class for handling leaderboards.
+ * <p>Class for handling leaderboards.</p>
+ * <p>Persistent leaderboards keep a binary snapshot of their scores, see {@link ScoreFile}. When one exists at startup,
+ * it's loaded right away and storage is read in the background.</p>
  */
 public class Leaderboard {
 
@@ -28,21 +36,117 @@ public class Leaderboard {
     public final SingleLeaderboardMenu.Sort sort;
 
     /**
-     * A map of all scores for this mode
+     * A read-only map of all scores for this mode, ordered from highest to lowest score.
+     * Every read uses the latest published scores.
+     *
+     * @see #getScores(SingleLeaderboardMenu.Sort)
+     */
+    public final Map<UUID, Score> scores;
+
+    /**
+     * The latest published scores. Readers never block, updates are applied by a single writer.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * Updates that have yet to be applied by the writer.
+     */
+    private final Queue<UnaryOperator<Snapshot>> updates = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether the writer has been scheduled to apply the queued updates.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Held by the writer while applying updates.
+     */
+    private final Object writer = new Object();
+
+    /**
+     * Held while reading from storage, so reads are merged in the order they were made.
+     */
+    private final Object reader = new Object();
+
+    /**
+     * The storage version of the last read, used to only read the scores that changed since. Guarded by reader.
+     *
+     * @see dev.efnilite.ip.storage.Storage#readScores(String, long)
+     */
+    private long version;
+
+    /**
+     * The storage version of the published scores. Guarded by writer.
      */
-    public final Map<UUID, Score> scores = new LinkedHashMap<>();
+    private long published;
+
+    /**
+     * The scores that were last written to the snapshot file. Held while writing the snapshot file.
+     */
+    private final AtomicReference<Snapshot> saved = new AtomicReference<>();
+
+    /**
+     * The scores that were added or updated since the last write. Guarded by writer.
+     */
+    private Map<UUID, Score> changed = new HashMap<>();
+
+    /**
+     * The uuids of the scores that were removed since the last write. Guarded by writer.
+     */
+    private Set<UUID> removed = new HashSet<>();
+
+    /**
+     * The executor the writer runs on.
+     */
+    private final Executor executor;
+
+    /**
+     * Whether this leaderboard is read from and written to storage.
+     */
+    private final boolean persistent;
+
+    /**
+     * The task that periodically reads or writes this leaderboard, null if not persistent.
+     */
+    private BukkitTask task;
 
     public Leaderboard(@NotNull String mode, SingleLeaderboardMenu.Sort sort) {
+        this(mode, sort, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param mode       The mode.
+     * @param sort       The way in which items will be sorted.
+     * @param persistent True if scores should be read from and written to storage, false if this leaderboard is only kept in memory.
+     */
+    public Leaderboard(@NotNull String mode, SingleLeaderboardMenu.Sort sort, boolean persistent) {
         this.mode = mode.toLowerCase();
         this.sort = sort;
+        this.persistent = persistent;
+        this.scores = new ScoresView(snapshot::get, SingleLeaderboardMenu.Sort.SCORE);
+        this.executor = persistent ? runnable -> Task.create(IP.getPlugin()).async().execute(runnable).run() : Runnable::run;
 
-        IP.getStorage().init(mode);
+        if (!persistent) {
+            return;
+        }
 
-        // read all data
-        read(true);
+        if (load()) {
+            // the snapshot may be outdated, so still read all changes
+            Task.create(IP.getPlugin()).async().execute(() -> {
+                IP.getStorage().init(mode);
+                read(false);
+            }).run();
+        } else {
+            IP.getStorage().init(mode);
+
+            // read all data
+            read(true);
+        }
 
         // read/write all data every x seconds after x seconds to allow time for reading/writing
-        Task.create(IP.getPlugin())
+        task = Task.create(IP.getPlugin())
                 .delay(Option.STORAGE_UPDATE_INTERVAL * 20)
                 .repeat(Option.STORAGE_UPDATE_INTERVAL * 20)
                 .async()
@@ -51,21 +155,147 @@ public class Leaderboard {
     }
 
     /**
-     * Writes all scores to the leaderboard file associated with this leaderboard
+     * Stops periodically reading or writing this leaderboard. Call {@link #write(boolean)} afterwards to store the last changes.
+     */
+    public void close() {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Writes all scores that changed since the last write to storage, and updates the snapshot file if scores changed.
+     * Changes that fail to be written are kept for the next write.
      */
     public void write(boolean async) {
-        run(() -> IP.getStorage().writeScores(mode, scores), async);
+        if (!persistent) {
+            return;
+        }
+
+        run(() -> {
+            Snapshot written;
+            long version;
+            Map<UUID, Score> changed;
+            Set<UUID> removed;
+
+            synchronized (writer) {
+                apply();
+
+                written = snapshot.get();
+                version = published;
+                changed = this.changed;
+                removed = this.removed;
+
+                this.changed = new HashMap<>();
+                this.removed = new HashSet<>();
+            }
+
+            if ((!changed.isEmpty() || !removed.isEmpty())
+                    && !IP.getStorage().writeScores(mode, new ScoresView(() -> written, SingleLeaderboardMenu.Sort.SCORE), changed, removed)) {
+                retry(changed, removed);
+
+                // the snapshot file may only contain scores that are in storage
+                return;
+            }
+
+            save(written, version);
+        }, async);
+    }
+
+    // queues changes that failed to be written for the next write, unless they have been changed again since
+    private void retry(Map<UUID, Score> changed, Set<UUID> removed) {
+        synchronized (writer) {
+            changed.forEach((uuid, score) -> {
+                if (!this.changed.containsKey(uuid) && !this.removed.contains(uuid)) {
+                    this.changed.put(uuid, score);
+                }
+            });
+            removed.forEach(uuid -> {
+                if (!this.changed.containsKey(uuid)) {
+                    this.removed.add(uuid);
+                }
+            });
+        }
+    }
+
+    // loads the snapshot file, returns false if there is none
+    private boolean load() {
+        ScoreFile.Contents contents;
+
+        try {
+            contents = ScoreFile.read(ScoreFile.getFile(mode));
+        } catch (IOException ex) {
+            IP.logging().warning("Ignoring invalid leaderboard snapshot of %s: %s".formatted(mode, ex.getMessage()));
+            return false;
+        }
+
+        if (contents == null) {
+            return false;
+        }
+
+        Snapshot loaded = new Snapshot(contents.byUuid(), contents.byScore(), contents.byTime(), contents.byDifficulty());
+
+        snapshot.set(loaded);
+        saved.set(loaded);
+        published = contents.version();
+        version = contents.version();
+
+        return true;
+    }
+
+    // writes scores to the snapshot file, if they haven't been written yet
+    private void save(Snapshot scores, long version) {
+        synchronized (saved) {
+            if (saved.get() == scores) {
+                return;
+            }
+
+            try {
+                ScoreFile.write(ScoreFile.getFile(mode), version, scores.byUuid, scores.byScore, scores.byTime, scores.byDifficulty);
+            } catch (IOException ex) {
+                IP.logging().severe("Error while trying to write leaderboard snapshot of %s".formatted(mode) + ex);
+                return;
+            }
+
+            saved.set(scores);
+        }
     }
 
     /**
-     * Reads all scores from the leaderboard file
+     * Reads the scores that changed since the last read from storage, or all scores if storage can't tell.
      */
     public void read(boolean async) {
+        if (!persistent) {
+            return;
+        }
+
         run(() -> {
-            scores.clear();
-            scores.putAll(IP.getStorage().readScores(mode));
+            synchronized (reader) {
+                ScoreChanges read = IP.getStorage().readScores(mode, version);
+                version = read.version();
+
+                if (!read.full()) {
+                    // other servers' changes, so these don't need to be written back
+                    if (!read.isEmpty()) {
+                        update(current -> {
+                            published = read.version();
+
+                            return current.merge(read.changed(), read.removed());
+                        });
+                    }
+                    return;
+                }
+
+                // build off the writer, only swapping in the result is queued
+                Snapshot replacement = Snapshot.of(read.changed());
+
+                // keep changes that haven't been written yet, e.g. made while reading in the background
+                update(previous -> {
+                    published = read.version();
 
-            sort();
+                    return replacement.merge(changed, removed);
+                });
+            }
         }, async);
     }
 
@@ -77,16 +307,29 @@ public class Leaderboard {
         }
     }
 
-    // sorts all scores in the map
-    private void sort() {
-        LinkedHashMap<UUID, Score> sorted = new LinkedHashMap<>();
+    // queues an update and makes sure the writer will apply it
+    private void update(UnaryOperator<Snapshot> update) {
+        updates.add(update);
 
-        scores.entrySet().stream()
-                .sorted((one, two) -> two.getValue().score() - one.getValue().score())
-                .forEachOrdered(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::apply);
+        }
+    }
+
+    // applies all queued updates and publishes the result
+    private void apply() {
+        synchronized (writer) {
+            // reset before polling, so updates queued after the last poll schedule a new run
+            scheduled.set(false);
 
-        scores.clear();
-        scores.putAll(sorted);
+            Snapshot current = snapshot.get();
+            UnaryOperator<Snapshot> update;
+            while ((update = updates.poll()) != null) {
+                current = update.apply(current);
+            }
+
+            snapshot.set(current);
+        }
     }
 
     /**
@@ -94,33 +337,74 @@ public class Leaderboard {
      *
      * @param uuid  The player's uuid
      * @param score The {@link Score} instance associated with a player's run
-     * @return the previous score, if there was one
+     * @return the previous score as currently published, if there was one
      */
     @Nullable
     public Score put(@NotNull UUID uuid, @NotNull Score score) {
-        Score previous = scores.put(uuid, score);
+        Score previous = snapshot.get().byUuid.get(uuid);
 
-        sort();
+        update(current -> {
+            changed.put(uuid, score);
+            removed.remove(uuid);
+
+            return current.put(uuid, score);
+        });
 
         return previous;
     }
 
+    /**
+     * Registers a new score, if it's higher than the current score of the player.
+     * The scores are compared when the update is applied, so a lower score registered right after a higher one never replaces it.
+     *
+     * @param uuid  The player's uuid
+     * @param score The {@link Score} instance associated with a player's run
+     */
+    public void putIfHigher(@NotNull UUID uuid, @NotNull Score score) {
+        update(current -> {
+            Score previous = current.byUuid.get(uuid);
+
+            if (score.score() <= (previous == null ? 0 : previous.score())) {
+                return current;
+            }
+
+            changed.put(uuid, score);
+            removed.remove(uuid);
+
+            return current.put(uuid, score);
+        });
+    }
+
     /**
      * Resets the score of a player by deleting it from the internal map
      *
      * @param uuid The UUID
-     * @return the previous value if one was found
+     * @return the previous value as currently published, if one was found
      */
     @Nullable
     public Score remove(@NotNull UUID uuid) {
-        return scores.remove(uuid);
+        Score previous = snapshot.get().byUuid.get(uuid);
+
+        update(current -> {
+            changed.remove(uuid);
+            removed.add(uuid);
+
+            return current.remove(uuid);
+        });
+
+        return previous;
     }
 
     /**
      * Resets all registered scores for this mode
      */
     public void resetAll() {
-        scores.keySet().forEach(this::remove);
+        update(current -> {
+            changed.clear();
+            current.byUuid.forEach(entry -> removed.add(entry.getKey()));
+
+            return Snapshot.EMPTY;
+        });
     }
 
     /**
@@ -129,7 +413,18 @@ public class Leaderboard {
      */
     @NotNull
     public Score get(@NotNull UUID uuid) {
-        return scores.getOrDefault(uuid, new Score("?", "?", "?", 0));
+        Score score = snapshot.get().byUuid.get(uuid);
+
+        return score == null ? Score.UNKNOWN : score;
+    }
+
+    /**
+     * @param sort The order.
+     * @return A read-only map of all scores for this mode, ordered by sort. Every read uses the latest published scores.
+     */
+    @NotNull
+    public Map<UUID, Score> getScores(@NotNull SingleLeaderboardMenu.Sort sort) {
+        return sort == SingleLeaderboardMenu.Sort.SCORE ? scores : new ScoresView(snapshot::get, sort);
     }
 
     /**
@@ -137,7 +432,10 @@ public class Leaderboard {
      * @return The rank. Starts from 1. Returns 0 if no ranking is found.
      */
     public int getRank(@NotNull UUID uuid) {
-        return new ArrayList<>(scores.keySet()).indexOf(uuid) + 1;
+        Snapshot current = snapshot.get();
+        Score score = current.byUuid.get(uuid);
+
+        return score == null ? 0 : current.byScore.rank(uuid, score);
     }
 
     /**
@@ -149,10 +447,189 @@ public class Leaderboard {
      */
     @Nullable
     public Score getScoreAtRank(int rank) {
-        if (scores.size() < rank) {
-            return null;
+        Map.Entry<UUID, Score> entry = snapshot.get().byScore.at(rank);
+
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * @param sort The order.
+     * @param uuid The uuid.
+     * @return The score of uuid with its rank in sort, null if uuid has no score.
+     */
+    @Nullable
+    public RankedScore getRanked(@NotNull SingleLeaderboardMenu.Sort sort, @NotNull UUID uuid) {
+        Snapshot current = snapshot.get();
+        Score score = current.byUuid.get(uuid);
+
+        return score == null ? null : new RankedScore(current.get(sort).rank(uuid, score), uuid, score);
+    }
+
+    /**
+     * @param count The maximum amount of scores.
+     * @return The highest scores, at most count.
+     */
+    @NotNull
+    public List<RankedScore> getTop(int count) {
+        return getRange(SingleLeaderboardMenu.Sort.SCORE, 1, count);
+    }
+
+    /**
+     * Gets a range of ranks, e.g. a page in a menu.
+     *
+     * @param sort  The order.
+     * @param rank  The first rank, starting from 1.
+     * @param count The maximum amount of scores.
+     * @return An immutable list of at most count scores, starting at rank.
+     */
+    @NotNull
+    public List<RankedScore> getRange(@NotNull SingleLeaderboardMenu.Sort sort, int rank, int count) {
+        return range(snapshot.get().get(sort), rank, count);
+    }
+
+    /**
+     * Gets the ranks around the rank of a player.
+     *
+     * @param sort   The order.
+     * @param uuid   The uuid.
+     * @param radius The maximum amount of ranks above and below the rank of uuid.
+     * @return An immutable list of the scores around uuid, including the score of uuid. Empty if uuid has no score.
+     */
+    @NotNull
+    public List<RankedScore> getAround(@NotNull SingleLeaderboardMenu.Sort sort, @NotNull UUID uuid, int radius) {
+        Snapshot current = snapshot.get();
+        Score score = current.byUuid.get(uuid);
+
+        if (score == null) {
+            return List.of();
+        }
+
+        ScoreTree tree = current.get(sort);
+        int rank = tree.rank(uuid, score);
+        int from = Math.max(1, rank - radius);
+
+        return range(tree, from, rank + radius - from + 1);
+    }
+
+    // collects at most count entries starting at rank
+    private static List<RankedScore> range(ScoreTree tree, int rank, int count) {
+        if (rank < 1 || count <= 0) {
+            return List.of();
+        }
+
+        List<RankedScore> range = new ArrayList<>(Math.min(count, Math.max(0, tree.size() - rank + 1)));
+        Iterator<Map.Entry<UUID, Score>> iterator = tree.iterator(rank);
+
+        while (range.size() < count && iterator.hasNext()) {
+            Map.Entry<UUID, Score> entry = iterator.next();
+
+            range.add(new RankedScore(rank + range.size(), entry.getKey(), entry.getValue()));
+        }
+
+        return Collections.unmodifiableList(range);
+    }
+
+    /**
+     * An immutable version of all scores, with an index for every way of sorting.
+     *
+     * @param byUuid       All scores by uuid.
+     * @param byScore      All scores by rank.
+     * @param byTime       All scores by time.
+     * @param byDifficulty All scores by difficulty.
+     */
+    private record Snapshot(ScoreTree byUuid, ScoreTree byScore, ScoreTree byTime, ScoreTree byDifficulty) {
+
+        private static final Snapshot EMPTY = new Snapshot(ScoreTree.empty(ScoreTree.Order.BY_UUID), ScoreTree.empty(ScoreTree.Order.BY_SCORE),
+                ScoreTree.empty(ScoreTree.Order.BY_TIME), ScoreTree.empty(ScoreTree.Order.BY_DIFFICULTY));
+
+        private static Snapshot of(Map<UUID, Score> scores) {
+            return new Snapshot(ScoreTree.of(ScoreTree.Order.BY_UUID, scores), ScoreTree.of(ScoreTree.Order.BY_SCORE, scores),
+                    ScoreTree.of(ScoreTree.Order.BY_TIME, scores), ScoreTree.of(ScoreTree.Order.BY_DIFFICULTY, scores));
+        }
+
+        private Snapshot put(UUID uuid, Score score) {
+            Snapshot without = remove(uuid);
+
+            return new Snapshot(without.byUuid.insert(uuid, score), without.byScore.insert(uuid, score),
+                    without.byTime.insert(uuid, score), without.byDifficulty.insert(uuid, score));
         }
 
-        return new ArrayList<>(scores.values()).get(rank - 1);
+        private Snapshot remove(UUID uuid) {
+            Score previous = byUuid.get(uuid);
+
+            if (previous == null) {
+                return this;
+            }
+
+            return new Snapshot(byUuid.delete(uuid, previous), byScore.delete(uuid, previous),
+                    byTime.delete(uuid, previous), byDifficulty.delete(uuid, previous));
+        }
+
+        private Snapshot merge(Map<UUID, Score> changed, Set<UUID> removed) {
+            Snapshot merged = this;
+
+            for (UUID uuid : removed) {
+                merged = merged.remove(uuid);
+            }
+            for (Map.Entry<UUID, Score> entry : changed.entrySet()) {
+                if (!entry.getValue().equals(merged.byUuid.get(entry.getKey()))) {
+                    merged = merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            return merged;
+        }
+
+        private ScoreTree get(SingleLeaderboardMenu.Sort sort) {
+            return switch (sort) {
+                case SCORE -> byScore;
+                case TIME -> byTime;
+                case DIFFICULTY -> byDifficulty;
+            };
+        }
+    }
+
+    // read-only view of all scores, iterated in the order of a sort
+    private static class ScoresView extends AbstractMap<UUID, Score> {
+
+        private final Supplier<Snapshot> snapshot;
+        private final SingleLeaderboardMenu.Sort sort;
+
+        private ScoresView(Supplier<Snapshot> snapshot, SingleLeaderboardMenu.Sort sort) {
+            this.snapshot = snapshot;
+            this.sort = sort;
+        }
+
+        @Override
+        public Score get(Object key) {
+            return key instanceof UUID uuid ? snapshot.get().byUuid.get(uuid) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return snapshot.get().byUuid.size();
+        }
+
+        @NotNull
+        @Override
+        public Set<Entry<UUID, Score>> entrySet() {
+            return new AbstractSet<>() {
+                @NotNull
+                @Override
+                public Iterator<Entry<UUID, Score>> iterator() {
+                    return snapshot.get().get(sort).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return snapshot.get().byUuid.size();
+                }
+            };
+        }
     }
-}
\ No newline at end of file
+}
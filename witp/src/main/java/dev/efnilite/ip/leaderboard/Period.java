@@ -0,0 +1,69 @@
+package dev.efnilite.ip.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The periods a {@link PeriodLeaderboard} can keep scores for.
+ *
+ * @since 5.1.0
+ */
+public enum Period {
+
+    DAILY {
+        @Override
+        public @NotNull LocalDate start(@NotNull LocalDate date) {
+            return date;
+        }
+
+        @Override
+        public @NotNull LocalDate next(@NotNull LocalDate start) {
+            return start.plusDays(1);
+        }
+    },
+    WEEKLY {
+        @Override
+        public @NotNull LocalDate start(@NotNull LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public @NotNull LocalDate next(@NotNull LocalDate start) {
+            return start.plusWeeks(1);
+        }
+    },
+    MONTHLY {
+        @Override
+        public @NotNull LocalDate start(@NotNull LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+
+        @Override
+        public @NotNull LocalDate next(@NotNull LocalDate start) {
+            return start.plusMonths(1);
+        }
+    };
+
+    /**
+     * @param date A date.
+     * @return The first day of the period that contains date.
+     */
+    public abstract @NotNull LocalDate start(@NotNull LocalDate date);
+
+    /**
+     * @param start The first day of a period.
+     * @return The first day of the period after it.
+     */
+    public abstract @NotNull LocalDate next(@NotNull LocalDate start);
+
+    /**
+     * @param start The first day of a period.
+     * @return The key of the period, e.g. "weekly-2023-07-03".
+     */
+    public @NotNull String key(@NotNull LocalDate start) {
+        return "%s-%s".formatted(name().toLowerCase(), start);
+    }
+}
@@ -0,0 +1,210 @@
+package dev.efnilite.ip.leaderboard;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.menu.community.SingleLeaderboardMenu;
+import dev.efnilite.vilib.util.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>A leaderboard that only keeps the scores of the current {@link Period}, e.g. this week.</p>
+ * <p>Every period is stored as a separate leaderboard. When a period ends, a new empty leaderboard is started and the
+ * old one is archived to a compressed file in leaderboards/archive, after which it's removed from memory and storage.
+ * The archive is made from storage after a grace period, so it includes the last scores of other servers.</p>
+ *
+ * @since 5.1.0
+ */
+public class PeriodLeaderboard {
+
+    /**
+     * The mode that this leaderboard belongs to.
+     */
+    public final String mode;
+
+    /**
+     * The period of this leaderboard.
+     */
+    public final Period period;
+
+    /**
+     * The time in millis before the end of a period at which the leaderboard of the next period is prepared.
+     */
+    private static final long PREPARE_AHEAD = 60_000;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Object lock = new Object();
+
+    private volatile Leaderboard current;
+
+    /**
+     * The time in millis at which the current period ends.
+     */
+    private volatile long end;
+
+    /**
+     * The leaderboard of the next period once it has been prepared, null if not prepared.
+     */
+    private Leaderboard next;
+    private long nextEnd;
+    private boolean preparing = false;
+
+    /**
+     * Constructor.
+     *
+     * @param mode   The mode.
+     * @param period The period.
+     */
+    public PeriodLeaderboard(@NotNull String mode, @NotNull Period period) {
+        this.mode = mode.toLowerCase();
+        this.period = period;
+
+        LocalDate start = period.start(LocalDate.now(zone));
+
+        current = new Leaderboard(getName(start), SingleLeaderboardMenu.Sort.SCORE);
+        end = getEnd(start);
+
+        // the server may have been offline when the previous period ended
+        if (Option.JOINING) {
+            String previous = getName(period.start(start.minusDays(1)));
+
+            Task.create(IP.getPlugin()).async().execute(() -> {
+                // avoid creating the storage of a period that never had scores
+                if (IP.getStorage().exists(previous)) {
+                    archive(previous);
+                }
+            }).run();
+        }
+    }
+
+    /**
+     * Returns the leaderboard of the current period. The leaderboard of the next period is prepared asynchronously
+     * shortly before the current period ends, so this never waits on storage. Until it's ready, the leaderboard
+     * of the ended period is returned.
+     *
+     * @return The leaderboard of the current period.
+     */
+    @NotNull
+    public Leaderboard get() {
+        long now = System.currentTimeMillis();
+
+        if (now >= end - PREPARE_AHEAD) {
+            rotate(now);
+        }
+
+        return current;
+    }
+
+    /**
+     * Registers a score in the current period, if it's higher than the score of uuid in this period.
+     *
+     * @param uuid  The uuid.
+     * @param score The score.
+     */
+    public void submit(@NotNull UUID uuid, @NotNull Score score) {
+        get().putIfHigher(uuid, score);
+    }
+
+    // prepares the leaderboard of the next period, and switches to it once the current period has ended
+    private void rotate(long now) {
+        Leaderboard previous;
+
+        synchronized (lock) {
+            if (next == null) {
+                if (!preparing) {
+                    prepare();
+                }
+                return;
+            }
+
+            if (now < end) {
+                return;
+            }
+
+            previous = current;
+            current = next;
+            end = nextEnd;
+            next = null;
+        }
+
+        previous.close();
+
+        if (!Option.JOINING) {
+            return;
+        }
+
+        Task.create(IP.getPlugin()).async().execute(() -> {
+            previous.write(false);
+
+            // give other servers time to write their last scores of this period
+            Task.create(IP.getPlugin())
+                    .delay(Option.STORAGE_UPDATE_INTERVAL * 20)
+                    .async()
+                    .execute(() -> archive(previous.mode))
+                    .run();
+        }).run();
+    }
+
+    // creates the leaderboard of the period after the current one off the main thread, must hold lock
+    private void prepare() {
+        preparing = true;
+
+        // the server may have lagged past more than one period, so always prepare the period of now if it's later
+        LocalDate start = period.start(LocalDate.now(zone));
+        LocalDate following = end > System.currentTimeMillis() ? period.next(start) : start;
+
+        Task.create(IP.getPlugin()).async().execute(() -> {
+            Leaderboard leaderboard = new Leaderboard(getName(following), SingleLeaderboardMenu.Sort.SCORE);
+
+            synchronized (lock) {
+                next = leaderboard;
+                nextEnd = getEnd(following);
+                preparing = false;
+            }
+        }).run();
+    }
+
+    // writes all scores in storage in order to a compressed file and removes them from storage
+    private void archive(String name) {
+        Map<UUID, Score> scores = IP.getStorage().readScores(name);
+
+        // another server may have already archived this period
+        if (!scores.isEmpty()) {
+            File file = IP.getInFolder("leaderboards/archive/%s.csv.gz".formatted(name));
+            file.getParentFile().mkdirs();
+
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8))) {
+                int rank = 1;
+                for (Map.Entry<UUID, Score> entry : ScoreTree.of(ScoreTree.Order.BY_SCORE, scores)) {
+                    writer.write(rank++ + "," + entry.getKey() + "," + entry.getValue());
+                    writer.newLine();
+                }
+            } catch (IOException ex) {
+                IP.logging().severe("Error while trying to archive leaderboard %s".formatted(name) + ex);
+                return;
+            }
+        }
+
+        IP.getStorage().deleteScores(name);
+        ScoreFile.getFile(name).delete();
+    }
+
+    private long getEnd(LocalDate start) {
+        return period.next(start).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private String getName(LocalDate start) {
+        return "%s-%s".formatted(mode, period.key(start));
+    }
+}
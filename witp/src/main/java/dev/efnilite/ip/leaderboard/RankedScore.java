@@ -0,0 +1,17 @@
+package dev.efnilite.ip.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A score together with its position on a leaderboard.
+ *
+ * @param rank  The rank, starting from 1
+ * @param uuid  The uuid of the player
+ * @param score The score
+ * @since 5.1.0
+ */
+public record RankedScore(int rank, @NotNull UUID uuid, @NotNull Score score) {
+
+}
@@ -4,43 +4,83 @@ import dev.efnilite.vilib.util.Time;
 
 /**
  * Represents a record, used to keep track of the score a player may achieve.
+ * Time and difficulty are only formatted when displayed, see {@link #formatTime()} and {@link #formatDifficulty()}.
  *
  * @param name       The name of the player
+ * @param millis     The time in millis it took to achieve this score, {@link #UNKNOWN_TIME} if unknown
+ * @param difficulty The difficulty of this run, {@link Float#NaN} if unknown
  * @param score      The score achieved
- * @param time       The time it took to achieve this score
- * @param difficulty The difficulty of this run
  */
-public record Score(String name, String time, String difficulty, int score) {
+public record Score(String name, int millis, float difficulty, int score) {
+
+    /**
+     * The time of a score where the time is unknown.
+     */
+    public static final int UNKNOWN_TIME = -1;
+
+    /**
+     * A score of which nothing is known.
+     */
+    public static final Score UNKNOWN = new Score("?", UNKNOWN_TIME, Float.NaN, 0);
 
     /**
      * The character used for splitting in strings
      */
     private static final String SPLITTER = ",";
 
+    /**
+     * Formatted difficulties, by tenths.
+     */
+    private static final String[] DIFFICULTIES = new String[100];
+
+    static {
+        for (int tenths = 0; tenths < DIFFICULTIES.length; tenths++) {
+            DIFFICULTIES[tenths] = (tenths / 10) + "." + (tenths % 10);
+        }
+    }
+
+    public Score {
+        // the same players appear on every leaderboard, so share their names
+        name = name == null ? "?" : name.intern();
+    }
+
     /**
      * Gets a {@link Score} instance from a string
      *
      * @param string The string
      * @return a {@link Score} instance based off the provided string
+     * @see #toString()
      */
     public static Score fromString(String string) {
         String[] parts = string.split(SPLITTER);
 
-        return new Score(parts[0], parseV1Score(parts[1]), parts[2], Integer.parseInt(parts[3]));
+        return new Score(parts[0], parseTime(parts[1]), parseDifficulty(parts[2]), Integer.parseInt(parts[3]));
     }
 
     /**
-     * @param old The old score format.
-     * @return The new score format.
+     * Parses all time formats that have been used to store scores.
+     *
+     * @param time The time, either as "m:s:ms", as "1h 2m 3.456s" from before v5 or "?".
+     * @return The time in millis, {@link #UNKNOWN_TIME} if unknown.
      */
-    public static String parseV1Score(String old) {
-        if (old.contains(":")) {
-            return old;
+    public static int parseTime(String time) {
+        if (time.equals("?")) {
+            return UNKNOWN_TIME;
         }
 
-        double totalSec = 0; // total duration in ms
+        if (time.contains(":")) {
+            String[] split = time.split(":");
+
+            int m = Integer.parseInt(split[0]);
+            int s = Integer.parseInt(split[1]);
+            int ms = Integer.parseInt(split[2]);
+
+            return m * 60 * 1000 + s * 1000 + ms;
+        }
 
-        for (String part : old.trim().split(" ")) {
+        double totalSec = 0;
+
+        for (String part : time.trim().split(" ")) {
             if (part.contains("h")) {
                 totalSec += Integer.parseInt(part.replace("h", "")) * Time.SECONDS_PER_HOUR;
             } else if (part.contains("m")) {
@@ -50,7 +90,15 @@ public record Score(String name, String time, String difficulty, int score) {
             }
         }
 
-        return timeFromMillis((int) (totalSec * 1000));
+        return (int) (totalSec * 1000);
+    }
+
+    /**
+     * @param difficulty The difficulty, e.g. "0.5" or "?".
+     * @return The difficulty, {@link Float#NaN} if unknown.
+     */
+    public static float parseDifficulty(String difficulty) {
+        return difficulty.equals("?") ? Float.NaN : Float.parseFloat(difficulty);
     }
 
     /**
@@ -58,38 +106,49 @@ public record Score(String name, String time, String difficulty, int score) {
      * @return The formatted time.
      */
     public static String timeFromMillis(int millis) {
+        if (millis < 0) {
+            return "?";
+        }
+
         int m = millis / (60 * 1000);
-        millis = millis - (m * 60 * 1000);
+        int s = millis / 1000 % 60;
+        int ms = millis % 1000;
 
-        int s = millis / 1000;
-        millis = millis - (s * 1000);
+        StringBuilder builder = new StringBuilder(10);
 
-        int ms = millis;
+        if (m < 10) builder.append('0');
+        builder.append(m).append(':');
+        if (s < 10) builder.append('0');
+        builder.append(s).append(':');
+        if (ms < 100) builder.append('0');
+        if (ms < 10) builder.append('0');
 
-        return "%s:%s:%s".formatted(padLeft(Integer.toString(m), (m < 10) ? 1 : 0),
-                padLeft(Integer.toString(s), (s < 10) ? 1 : 0),
-                padLeft(Integer.toString(ms), (ms < 100) ? 2 : 0));
+        return builder.append(ms).toString();
     }
 
-    private static String padLeft(String s, int extraZeroes) {
-        return extraZeroes > 0 ? String.format("%" + (extraZeroes + 1) + "s", s).replace(" ", "0") : s;
+    /**
+     * @return This score's time, formatted as "m:s:ms".
+     */
+    public String formatTime() {
+        return timeFromMillis(millis);
     }
 
     /**
-     * @return This score's time in millis.
+     * @return This score's difficulty, truncated to one decimal.
      */
-    public int toMillis() {
-        String[] split = time.split(":");
+    public String formatDifficulty() {
+        if (Float.isNaN(difficulty)) {
+            return "?";
+        }
 
-        int m = Integer.parseInt(split[0]);
-        int s = Integer.parseInt(split[1]);
-        int ms = Integer.parseInt(split[2]);
+        // truncated instead of rounded, like the stored format has always been
+        int tenths = (int) (difficulty * 10);
 
-        return m * 60 * 1000 + s * 1000 + ms;
+        return tenths >= 0 && tenths < DIFFICULTIES.length ? DIFFICULTIES[tenths] : Float.toString(difficulty).substring(0, 3);
     }
 
     @Override
     public String toString() {
-        return String.format("%s%s%s%s%s%s%s", name, SPLITTER, time, SPLITTER, difficulty, SPLITTER, score);
+        return name + SPLITTER + formatTime() + SPLITTER + formatDifficulty() + SPLITTER + score;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package dev.efnilite.ip.leaderboard;
+
+import dev.efnilite.ip.IP;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * <p>A binary snapshot of a leaderboard, so it can be loaded at startup without waiting on storage.</p>
+ * <p>The file starts with a header, followed by fixed-width records in score order and an index block per other order,
+ * which holds the position of every record in that order. Every order can be rebuilt without sorting or parsing.
+ * The file ends with a checksum of everything before it. Snapshots are replaced atomically.</p>
+ *
+ * @since 5.1.0
+ */
+final class ScoreFile {
+
+    private static final int MAGIC = 0x49504c42; // IPLB
+    private static final int FORMAT = 1;
+
+    /**
+     * The maximum amount of characters of a stored name. Longer names are cut off.
+     */
+    private static final int NAME_LENGTH = 16;
+
+    private static final int HEADER = 4 + 4 + 8 + 4; // magic, format, version, count
+    private static final int RECORD = 8 + 8 + 4 + 4 + 4 + 2 + NAME_LENGTH * 2; // uuid, millis, difficulty, score, name
+    private static final int INDEXES = 3; // uuid, time, difficulty
+
+    private ScoreFile() {
+
+    }
+
+    /**
+     * @param mode The mode.
+     * @return The snapshot file of mode.
+     */
+    @NotNull
+    static File getFile(@NotNull String mode) {
+        return IP.getInFolder("leaderboards/%s.bin".formatted(mode.toLowerCase()));
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param file The file.
+     * @return The contents, null if file doesn't exist.
+     * @throws IOException If file could not be read or isn't a valid snapshot.
+     */
+    @Nullable
+    static Contents read(@NotNull File file) throws IOException {
+        ByteBuffer buffer;
+
+        // read into the heap instead of mapping, as a mapped file can't be replaced on some platforms until it's unmapped
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Leaderboard snapshot is too large");
+            }
+
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Leaderboard snapshot was truncated while reading");
+                }
+            }
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+
+        int length = buffer.capacity();
+        if (length < HEADER + 4 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            throw new IOException("Not a leaderboard snapshot");
+        }
+
+        long version = buffer.getLong(8);
+        int count = buffer.getInt(16);
+
+        if (count < 0 || length != HEADER + (long) count * (RECORD + INDEXES * 4) + 4) {
+            throw new IOException("Invalid size of leaderboard snapshot");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, length - 4));
+        if ((int) crc.getValue() != buffer.getInt(length - 4)) {
+            throw new IOException("Invalid checksum of leaderboard snapshot");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map.Entry<UUID, Score>[] byScore = new Map.Entry[count];
+        char[] name = new char[NAME_LENGTH];
+
+        buffer.position(HEADER);
+        for (int i = 0; i < count; i++) {
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            int millis = buffer.getInt();
+            float difficulty = buffer.getFloat();
+            int score = buffer.getInt();
+            int nameLength = Math.min(buffer.getShort(), NAME_LENGTH);
+
+            for (int c = 0; c < NAME_LENGTH; c++) {
+                name[c] = buffer.getChar();
+            }
+
+            byScore[i] = Map.entry(uuid, new Score(new String(name, 0, nameLength), millis, difficulty, score));
+        }
+
+        return new Contents(version,
+                ScoreTree.ofSorted(ScoreTree.Order.BY_UUID, readIndex(buffer, byScore, ScoreTree.Order.BY_UUID)),
+                ScoreTree.ofSorted(ScoreTree.Order.BY_SCORE, checkOrder(byScore, ScoreTree.Order.BY_SCORE)),
+                ScoreTree.ofSorted(ScoreTree.Order.BY_TIME, readIndex(buffer, byScore, ScoreTree.Order.BY_TIME)),
+                ScoreTree.ofSorted(ScoreTree.Order.BY_DIFFICULTY, readIndex(buffer, byScore, ScoreTree.Order.BY_DIFFICULTY)));
+    }
+
+    // reads the next index block, which holds the record position of every entry in order
+    private static Map.Entry<UUID, Score>[] readIndex(ByteBuffer buffer, Map.Entry<UUID, Score>[] byScore, ScoreTree.Order order) throws IOException {
+        @SuppressWarnings("unchecked")
+        Map.Entry<UUID, Score>[] entries = new Map.Entry[byScore.length];
+
+        for (int i = 0; i < entries.length; i++) {
+            int position = buffer.getInt();
+
+            if (position < 0 || position >= byScore.length) {
+                throw new IOException("Invalid index in leaderboard snapshot");
+            }
+
+            entries[i] = byScore[position];
+        }
+
+        return checkOrder(entries, order);
+    }
+
+    // makes sure the entries are in order, e.g. when an order changed since the snapshot was written
+    private static Map.Entry<UUID, Score>[] checkOrder(Map.Entry<UUID, Score>[] entries, ScoreTree.Order order) throws IOException {
+        for (int i = 1; i < entries.length; i++) {
+            if (order.compare(entries[i - 1].getKey(), entries[i - 1].getValue(), entries[i].getKey(), entries[i].getValue()) >= 0) {
+                throw new IOException("Leaderboard snapshot is out of order");
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Writes a snapshot, replacing the previous one.
+     *
+     * @param file         The file.
+     * @param version      The storage version of the scores.
+     * @param byUuid       All scores by uuid.
+     * @param byScore      All scores by rank.
+     * @param byTime       All scores by time.
+     * @param byDifficulty All scores by difficulty.
+     * @throws IOException If file could not be written.
+     */
+    static void write(@NotNull File file, long version, @NotNull ScoreTree byUuid, @NotNull ScoreTree byScore,
+                      @NotNull ScoreTree byTime, @NotNull ScoreTree byDifficulty) throws IOException {
+        file.getParentFile().mkdirs();
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        Map<UUID, Integer> positions = new HashMap<>(byScore.size() * 2);
+        CRC32 crc = new CRC32();
+
+        try (FileOutputStream stream = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(stream), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(version);
+            out.writeInt(byScore.size());
+
+            for (Map.Entry<UUID, Score> entry : byScore) {
+                Score score = entry.getValue();
+                String name = score.name().length() > NAME_LENGTH ? score.name().substring(0, NAME_LENGTH) : score.name();
+
+                positions.put(entry.getKey(), positions.size());
+
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeInt(score.millis());
+                out.writeFloat(score.difficulty());
+                out.writeInt(score.score());
+                out.writeShort(name.length());
+                out.writeChars(name);
+                out.write(new byte[(NAME_LENGTH - name.length()) * 2]);
+            }
+
+            for (ScoreTree tree : List.of(byUuid, byTime, byDifficulty)) {
+                for (Map.Entry<UUID, Score> entry : tree) {
+                    out.writeInt(positions.get(entry.getKey()));
+                }
+            }
+
+            out.flush();
+            new DataOutputStream(stream).writeInt((int) crc.getValue());
+            stream.getFD().sync(); // make sure the data is on disk before it replaces the old version
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The contents of a snapshot.
+     *
+     * @param version      The storage version of the scores.
+     * @param byUuid       All scores by uuid.
+     * @param byScore      All scores by rank.
+     * @param byTime       All scores by time.
+     * @param byDifficulty All scores by difficulty.
+     */
+    record Contents(long version, ScoreTree byUuid, ScoreTree byScore, ScoreTree byTime, ScoreTree byDifficulty) {
+
+    }
+}
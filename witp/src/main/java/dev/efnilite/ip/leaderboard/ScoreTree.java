@@ -0,0 +1,413 @@
+package dev.efnilite.ip.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * <p>An immutable order-statistic tree of scores, in a provided {@link Order}.</p>
+ * <p>Every node keeps the size of its subtree, so ranks can be found and selected in O(log n).
+ * The tree is weight-balanced on these sizes. Updates return a new tree that shares all untouched nodes with the old one,
+ * so trees can be read safely while newer versions are being made.</p>
+ *
+ * @since 5.1.0
+ */
+final class ScoreTree implements Iterable<Map.Entry<UUID, Score>> {
+
+    // balance parameters, see Adams' weight-balanced trees with the corrected parameters by Hirai and Yamamoto
+    private static final int DELTA = 3;
+    private static final int RATIO = 2;
+
+    private final Order order;
+    private final Node root;
+
+    private ScoreTree(Order order, Node root) {
+        this.order = order;
+        this.root = root;
+    }
+
+    /**
+     * @param order The order.
+     * @return An empty tree.
+     */
+    @NotNull
+    static ScoreTree empty(@NotNull Order order) {
+        return new ScoreTree(order, null);
+    }
+
+    /**
+     * Builds a tree from all scores in linear time after sorting.
+     *
+     * @param order  The order.
+     * @param scores The scores.
+     * @return The tree.
+     */
+    @NotNull
+    static ScoreTree of(@NotNull Order order, @NotNull Map<UUID, Score> scores) {
+        @SuppressWarnings("unchecked")
+        Map.Entry<UUID, Score>[] entries = scores.entrySet().toArray(new Map.Entry[0]);
+
+        Arrays.sort(entries, (one, two) -> order.compare(one.getKey(), one.getValue(), two.getKey(), two.getValue()));
+
+        return ofSorted(order, entries);
+    }
+
+    /**
+     * Builds a tree in linear time from entries that are already in order.
+     *
+     * @param order   The order.
+     * @param entries The entries, sorted by order without duplicates.
+     * @return The tree.
+     */
+    @NotNull
+    static ScoreTree ofSorted(@NotNull Order order, @NotNull Map.Entry<UUID, Score>[] entries) {
+        return new ScoreTree(order, build(entries, 0, entries.length));
+    }
+
+    private static Node build(Map.Entry<UUID, Score>[] entries, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+
+        int middle = (from + to) >>> 1;
+
+        return new Node(entries[middle].getKey(), entries[middle].getValue(), build(entries, from, middle), build(entries, middle + 1, to));
+    }
+
+    /**
+     * @return The amount of scores.
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * @param uuid  The uuid.
+     * @param score The score of uuid.
+     * @return A tree with the score added.
+     */
+    @NotNull
+    ScoreTree insert(@NotNull UUID uuid, @NotNull Score score) {
+        return new ScoreTree(order, insert(root, uuid, score));
+    }
+
+    /**
+     * @param uuid  The uuid.
+     * @param score The score of uuid in this tree.
+     * @return A tree without the score.
+     */
+    @NotNull
+    ScoreTree delete(@NotNull UUID uuid, @NotNull Score score) {
+        return new ScoreTree(order, delete(root, uuid, score));
+    }
+
+    /**
+     * Finds the score of a uuid. Only supported in trees ordered by {@link Order#BY_UUID}.
+     *
+     * @param uuid The uuid.
+     * @return The score, null if uuid isn't in this tree.
+     */
+    @Nullable
+    Score get(@NotNull UUID uuid) {
+        Node node = root;
+
+        while (node != null) {
+            int comparison = uuid.compareTo(node.uuid);
+
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                node = node.right;
+            } else {
+                return node.score;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param uuid  The uuid.
+     * @param score The score of uuid in this tree.
+     * @return The rank, starting from 1. 0 if the score isn't in this tree.
+     */
+    int rank(@NotNull UUID uuid, @NotNull Score score) {
+        int rank = 0;
+        Node node = root;
+
+        while (node != null) {
+            int comparison = order.compare(uuid, score, node.uuid, node.score);
+
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left) + 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @param rank The rank, starting from 1.
+     * @return The entry at rank, null if there is none.
+     */
+    @Nullable
+    Map.Entry<UUID, Score> at(int rank) {
+        if (rank < 1 || rank > size()) {
+            return null;
+        }
+
+        int index = rank - 1;
+        Node node = root;
+
+        while (true) {
+            int left = size(node.left);
+
+            if (index < left) {
+                node = node.left;
+            } else if (index > left) {
+                index -= left + 1;
+                node = node.right;
+            } else {
+                return Map.entry(node.uuid, node.score);
+            }
+        }
+    }
+
+    /**
+     * @return An iterator over all entries, in order.
+     */
+    @NotNull
+    @Override
+    public Iterator<Map.Entry<UUID, Score>> iterator() {
+        return iterator(1);
+    }
+
+    /**
+     * @param rank The rank to start from, starting from 1.
+     * @return An iterator over all entries from rank onwards, in order.
+     */
+    @NotNull
+    Iterator<Map.Entry<UUID, Score>> iterator(int rank) {
+        Deque<Node> stack = new ArrayDeque<>();
+
+        // keep every node where the path goes left, as they come after the starting node
+        int index = rank - 1;
+        Node node = index < 0 ? null : root;
+        while (node != null) {
+            int left = size(node.left);
+
+            if (index < left) {
+                stack.push(node);
+                node = node.left;
+            } else if (index > left) {
+                index -= left + 1;
+                node = node.right;
+            } else {
+                stack.push(node);
+                break;
+            }
+        }
+
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Map.Entry<UUID, Score> next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+
+                Node next = stack.pop();
+
+                for (Node child = next.right; child != null; child = child.left) {
+                    stack.push(child);
+                }
+
+                return Map.entry(next.uuid, next.score);
+            }
+        };
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private Node insert(Node node, UUID uuid, Score score) {
+        if (node == null) {
+            return new Node(uuid, score, null, null);
+        }
+
+        int comparison = order.compare(uuid, score, node.uuid, node.score);
+
+        if (comparison < 0) {
+            return balance(node.uuid, node.score, insert(node.left, uuid, score), node.right);
+        } else if (comparison > 0) {
+            return balance(node.uuid, node.score, node.left, insert(node.right, uuid, score));
+        }
+        return new Node(uuid, score, node.left, node.right);
+    }
+
+    private Node delete(Node node, UUID uuid, Score score) {
+        if (node == null) {
+            return null;
+        }
+
+        int comparison = order.compare(uuid, score, node.uuid, node.score);
+
+        if (comparison < 0) {
+            return balance(node.uuid, node.score, delete(node.left, uuid, score), node.right);
+        } else if (comparison > 0) {
+            return balance(node.uuid, node.score, node.left, delete(node.right, uuid, score));
+        }
+        return glue(node.left, node.right);
+    }
+
+    // joins two balanced subtrees of a deleted node
+    private static Node glue(Node left, Node right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        }
+
+        if (left.size > right.size) {
+            Node max = left;
+            while (max.right != null) {
+                max = max.right;
+            }
+
+            return balance(max.uuid, max.score, deleteMax(left), right);
+        } else {
+            Node min = right;
+            while (min.left != null) {
+                min = min.left;
+            }
+
+            return balance(min.uuid, min.score, left, deleteMin(right));
+        }
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+
+        return balance(node.uuid, node.score, deleteMin(node.left), node.right);
+    }
+
+    private static Node deleteMax(Node node) {
+        if (node.right == null) {
+            return node.left;
+        }
+
+        return balance(node.uuid, node.score, node.left, deleteMax(node.right));
+    }
+
+    // restores balance after a single insert or delete in left or right
+    private static Node balance(UUID uuid, Score score, Node left, Node right) {
+        int sizeLeft = size(left);
+        int sizeRight = size(right);
+
+        if (sizeLeft + sizeRight <= 1) {
+            return new Node(uuid, score, left, right);
+        }
+
+        if (sizeRight > DELTA * sizeLeft) { // rotate left
+            if (size(right.left) < RATIO * size(right.right)) {
+                return new Node(right.uuid, right.score, new Node(uuid, score, left, right.left), right.right);
+            }
+
+            Node inner = right.left;
+            return new Node(inner.uuid, inner.score, new Node(uuid, score, left, inner.left), new Node(right.uuid, right.score, inner.right, right.right));
+        }
+
+        if (sizeLeft > DELTA * sizeRight) { // rotate right
+            if (size(left.right) < RATIO * size(left.left)) {
+                return new Node(left.uuid, left.score, left.left, new Node(uuid, score, left.right, right));
+            }
+
+            Node inner = left.right;
+            return new Node(inner.uuid, inner.score, new Node(left.uuid, left.score, left.left, inner.left), new Node(uuid, score, inner.right, right));
+        }
+
+        return new Node(uuid, score, left, right);
+    }
+
+    /**
+     * The order of entries in a tree. Two entries may only be equal when their uuids are equal.
+     */
+    @FunctionalInterface
+    interface Order {
+
+        /**
+         * By score, highest first, and then by uuid.
+         */
+        Order BY_SCORE = (uuid, score, otherUuid, otherScore) -> {
+            int comparison = Integer.compare(otherScore.score(), score.score());
+
+            return comparison != 0 ? comparison : uuid.compareTo(otherUuid);
+        };
+
+        /**
+         * By time, lowest first, and then by uuid.
+         */
+        Order BY_TIME = (uuid, score, otherUuid, otherScore) -> {
+            int comparison = Integer.compare(millis(score), millis(otherScore));
+
+            return comparison != 0 ? comparison : uuid.compareTo(otherUuid);
+        };
+
+        /**
+         * By difficulty, highest first, and then by uuid.
+         */
+        Order BY_DIFFICULTY = (uuid, score, otherUuid, otherScore) -> {
+            int comparison = Float.compare(difficulty(otherScore), difficulty(score));
+
+            return comparison != 0 ? comparison : uuid.compareTo(otherUuid);
+        };
+
+        /**
+         * By uuid only.
+         */
+        Order BY_UUID = (uuid, score, otherUuid, otherScore) -> uuid.compareTo(otherUuid);
+
+        int compare(UUID uuid, Score score, UUID otherUuid, Score otherScore);
+
+        // unknown times are ranked last
+        private static int millis(Score score) {
+            return score.millis() < 0 ? Integer.MAX_VALUE : score.millis();
+        }
+
+        // unknown difficulties are ranked last
+        private static float difficulty(Score score) {
+            return Float.isNaN(score.difficulty()) ? Float.NEGATIVE_INFINITY : score.difficulty();
+        }
+    }
+
+    private static final class Node {
+
+        private final UUID uuid;
+        private final Score score;
+        private final Node left;
+        private final Node right;
+        private final int size;
+
+        private Node(UUID uuid, Score score, Node left, Node right) {
+            this.uuid = uuid;
+            this.score = score;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
@@ -2,15 +2,14 @@ package dev.efnilite.ip.menu.community;
 
 import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.leaderboard.Leaderboard;
+import dev.efnilite.ip.leaderboard.RankedScore;
 import dev.efnilite.ip.leaderboard.Score;
 import dev.efnilite.ip.menu.Menus;
 import dev.efnilite.ip.menu.ParkourOption;
 import dev.efnilite.ip.mode.Mode;
-import dev.efnilite.ip.player.ParkourUser;
 import dev.efnilite.ip.util.Util;
-import dev.efnilite.vilib.inventory.PagedMenu;
+import dev.efnilite.vilib.inventory.Menu;
 import dev.efnilite.vilib.inventory.item.Item;
-import dev.efnilite.vilib.inventory.item.MenuItem;
 import dev.efnilite.vilib.util.SkullSetter;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -19,66 +18,59 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Menu for a single leaderboard
  */
 public class SingleLeaderboardMenu {
 
+    /**
+     * The amount of scores on a single page.
+     */
+    private static final int PAGE_SIZE = 18;
+
     public void open(Player player, Mode mode, Sort sort) {
+        open(player, mode, sort, 0);
+    }
+
+    /**
+     * Opens a single page of a leaderboard. Only the scores on this page are read.
+     *
+     * @param player The player.
+     * @param mode   The mode.
+     * @param sort   The order.
+     * @param page   The page, starting from 0.
+     */
+    public void open(Player player, Mode mode, Sort sort, int page) {
         Leaderboard leaderboard = mode.getLeaderboard();
 
         if (leaderboard == null) {
             return;
         }
 
-        // init vars
-        ParkourUser user = ParkourUser.getUser(player);
-        PagedMenu menu = new PagedMenu(3, Locales.getString(player, "%s.name".formatted(ParkourOption.LEADERBOARDS.path)));
-
-        List<MenuItem> items = new ArrayList<>();
+        Menu menu = new Menu(3, Locales.getString(player, "%s.name".formatted(ParkourOption.LEADERBOARDS.path)));
 
         Item base = Locales.getItem(player, "%s.head".formatted(ParkourOption.LEADERBOARDS.path));
 
-        Map<UUID, Score> sorted = sort.sort(leaderboard.scores);
+        List<RankedScore> scores = leaderboard.getRange(sort, page * PAGE_SIZE + 1, PAGE_SIZE + 1);
 
-        for (UUID uuid : sorted.keySet()) {
-            int rank = items.size() + 1;
-            Score score = sorted.get(uuid);
+        for (int i = 0; i < Math.min(PAGE_SIZE, scores.size()); i++) {
+            RankedScore score = scores.get(i);
+            Item item = getItem(player, base, score);
 
-            if (score == null) {
-                continue;
+            if (score.uuid().equals(player.getUniqueId())) {
+                item.glowing();
             }
 
-            Item item = base.clone().material(Material.PLAYER_HEAD).modifyName(name -> name.replace("%r", Integer.toString(rank)).replace("%s", Integer.toString(score.score())).replace("%p", score.name()).replace("%t", score.time()).replace("%d", score.difficulty())).modifyLore(line -> line.replace("%r", Integer.toString(rank)).replace("%s", Integer.toString(score.score())).replace("%p", score.name()).replace("%t", score.time()).replace("%d", score.difficulty()));
-
-            // Player head gathering
-            ItemStack stack = item.build();
-            stack.setType(Material.PLAYER_HEAD);
-
-            // if there are more than 36 players, don't show the heads to avoid server crashing
-            // and bedrock has no player skull support
-            if (rank <= 36 && !Util.isBedrockPlayer(player)) {
-                OfflinePlayer op = Bukkit.getOfflinePlayer(uuid);
-
-                if (op.getName() != null && !op.getName().startsWith(".")) { // bedrock players' names with geyser start with a .
-                    SkullMeta meta = (SkullMeta) stack.getItemMeta();
-
-                    if (meta != null) {
-                        SkullSetter.setPlayerHead(Bukkit.getPlayer(uuid), meta);
-                        item.meta(meta);
-                    }
-                }
-            }
+            menu.item(i, item);
+        }
 
-            if (uuid.equals(player.getUniqueId())) {
-                menu.item(21, item.clone());
-                item.glowing();
-            }
+        RankedScore own = leaderboard.getRanked(sort, player.getUniqueId());
 
-            items.add(item);
+        if (own != null) {
+            menu.item(21, getItem(player, base, own));
         }
 
         List<String> values = Locales.getStringList(player, "%s.sort.values".formatted(ParkourOption.LEADERBOARDS.path));
@@ -96,50 +88,68 @@ public class SingleLeaderboardMenu {
             default -> Sort.SCORE;
         };
 
-        menu.displayRows(0, 1)
-                .addToDisplay(items)
-                .nextPage(26, new Item(Material.LIME_DYE, "<#0DCB07><bold>»").click(event -> menu.page(1)))
-                .prevPage(18, new Item(Material.RED_DYE, "<#DE1F1F><bold>«").click(event -> menu.page(-1)))
-                .item(22, Locales.getItem(player, ParkourOption.LEADERBOARDS.path + ".sort", name.toLowerCase()).click(event -> open(player, mode, next)))
+        // one extra score is fetched to know whether there is a next page
+        if (scores.size() > PAGE_SIZE) {
+            menu.item(26, new Item(Material.LIME_DYE, "<#0DCB07><bold>»").click(event -> open(player, mode, sort, page + 1)));
+        }
+        if (page > 0) {
+            menu.item(18, new Item(Material.RED_DYE, "<#DE1F1F><bold>«").click(event -> open(player, mode, sort, page - 1)));
+        }
+
+        menu.item(22, Locales.getItem(player, ParkourOption.LEADERBOARDS.path + ".sort", name.toLowerCase()).click(event -> open(player, mode, next)))
                 .item(23, Locales.getItem(player, "other.close").click(event -> Menus.COMMUNITY.open(event.getPlayer())))
                 .fillBackground(Util.isBedrockPlayer(player) ? Material.AIR : Material.GRAY_STAINED_GLASS_PANE)
                 .open(player);
     }
 
-    public enum Sort {
+    private Item getItem(Player player, Item base, RankedScore ranked) {
+        UUID uuid = ranked.uuid();
+        Score score = ranked.score();
+        String rank = Integer.toString(ranked.rank());
+        String time = score.formatTime();
+        String difficulty = score.formatDifficulty();
 
-        SCORE {
-            @Override
-            Map<UUID, Score> sort(Map<UUID, Score> scores) {
-                return scores; // already sorted
-            }
-        }, TIME {
-            @Override
-            Map<UUID, Score> sort(Map<UUID, Score> scores) {
-                return scores.entrySet().stream().sorted((o1, o2) -> {
-                            long one = o1.getValue().toMillis();
-                            long two = o2.getValue().toMillis();
-
-                            return Math.toIntExact(one - two); // natural order (lower == better)
-                        }) // reverse natural order
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> b, LinkedHashMap::new));
-            }
-        }, DIFFICULTY {
-            @Override
-            Map<UUID, Score> sort(Map<UUID, Score> scores) {
-                return scores.entrySet().stream().sorted((o1, o2) -> {
-                            String first = o1.getValue().difficulty();
-                            String second = o2.getValue().difficulty();
-
-                            double one = Double.parseDouble(first.equals("?") ? "1.0" : first);
-                            double two = Double.parseDouble(second.equals("?") ? "1.0" : second);
-
-                            return (int) (100 * (two - one)); // reverse natural order (higher == better)
-                        }) // reverse natural order
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> b, LinkedHashMap::new));
+        Item item = base.clone().material(Material.PLAYER_HEAD).modifyName(name -> name.replace("%r", rank).replace("%s", Integer.toString(score.score())).replace("%p", score.name()).replace("%t", time).replace("%d", difficulty)).modifyLore(line -> line.replace("%r", rank).replace("%s", Integer.toString(score.score())).replace("%p", score.name()).replace("%t", time).replace("%d", difficulty));
+
+        // Player head gathering
+        ItemStack stack = item.build();
+        stack.setType(Material.PLAYER_HEAD);
+
+        // bedrock has no player skull support
+        if (!Util.isBedrockPlayer(player)) {
+            OfflinePlayer op = Bukkit.getOfflinePlayer(uuid);
+
+            if (op.getName() != null && !op.getName().startsWith(".")) { // bedrock players' names with geyser start with a .
+                SkullMeta meta = (SkullMeta) stack.getItemMeta();
+
+                if (meta != null) {
+                    SkullSetter.setPlayerHead(Bukkit.getPlayer(uuid), meta);
+                    item.meta(meta);
+                }
             }
-        };
+        }
+
+        return item;
+    }
+
+    /**
+     * The ways in which a leaderboard can be sorted. {@link Leaderboard} keeps every order up to date.
+     */
+    public enum Sort {
+
+        /**
+         * Highest score first.
+         */
+        SCORE,
+
+        /**
+         * Lowest time first.
+         */
+        TIME,
 
-        abstract Map<UUID, Score> sort(Map<UUID, Score> scores);
+        /**
+         * Highest difficulty first.
+         */
+        DIFFICULTY
     }
-}
\ No newline at end of file
+}
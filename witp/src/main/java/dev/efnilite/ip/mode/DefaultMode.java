@@ -5,21 +5,29 @@ import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
 import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import dev.efnilite.ip.IP;
 import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
 import dev.efnilite.ip.generator.ParkourGenerator;
+import dev.efnilite.ip.generator.RunLog;
 import dev.efnilite.ip.leaderboard.Leaderboard;
+import dev.efnilite.ip.leaderboard.Period;
+import dev.efnilite.ip.leaderboard.PeriodLeaderboard;
 import dev.efnilite.ip.menu.community.SingleLeaderboardMenu;
 import dev.efnilite.ip.player.ParkourPlayer;
 import dev.efnilite.ip.player.ParkourUser;
 import dev.efnilite.ip.session.Session;
 import dev.efnilite.vilib.inventory.item.Item;
+import dev.efnilite.vilib.util.Task;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import static dev.efnilite.ip.util.Util.send;
 
 /**
@@ -29,6 +37,12 @@ public class DefaultMode implements Mode {
 
     private final Leaderboard leaderboard = new Leaderboard(getName(), SingleLeaderboardMenu.Sort.SCORE);
 
+    private final Map<Period, PeriodLeaderboard> periodLeaderboards = new EnumMap<>(Period.class);
+
+    public DefaultMode() {
+        Option.LEADERBOARD_PERIODS.forEach(period -> periodLeaderboards.put(period, new PeriodLeaderboard(getName(), period)));
+    }
+
     @Override
     @NotNull
     public String getName() {
@@ -47,8 +61,33 @@ public class DefaultMode implements Mode {
         return leaderboard;
     }
 
+    @Override
+    @NotNull
+    public Map<Period, PeriodLeaderboard> getPeriodLeaderboards() {
+        return periodLeaderboards;
+    }
+
     @Override
     public void create(Player player) {
+        create(player, null);
+    }
+
+    /**
+     * Creates a session which regenerates the course of a previous run, with the settings of that run.
+     *
+     * @param player The player.
+     * @param seed   The seed of the run, as found in runs.log.
+     */
+    public void replay(Player player, long seed) {
+        RunLog.find(seed).thenAccept(run -> Task.create(IP.getPlugin()).execute(() -> {
+            if (player.isOnline()) {
+                // runs that aren't logged can still be replayed, using the player's settings
+                create(player, run == null ? new RunLog.Run(seed, Map.of()) : run);
+            }
+        }).run());
+    }
+
+    private void create(Player player, @Nullable RunLog.Run run) {
         if (!Option.JOINING) {
             send(player, "<red><bold>Joining is currently disabled.");
             return;
@@ -69,10 +108,19 @@ public class DefaultMode implements Mode {
         if (pp != null && pp.session.generator.getMode() instanceof DefaultMode) {
             return;
         }
+
         player.closeInventory();
 
-        Session.create(ParkourGenerator::new)
-                .addPlayers(ParkourUser.register(player))
-                .complete();
+        // don't wait on storage in the main thread, the session is built once the settings have been read
+        ParkourUser.register(player, registered -> {
+            Session.Builder builder = Session.create(ParkourGenerator::new)
+                    .addPlayers(registered);
+
+            if (run != null) {
+                builder.replay(run);
+            }
+
+            builder.complete();
+        });
     }
 }
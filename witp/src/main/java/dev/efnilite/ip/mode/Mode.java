@@ -1,11 +1,15 @@
 package dev.efnilite.ip.mode;
 
 import dev.efnilite.ip.leaderboard.Leaderboard;
+import dev.efnilite.ip.leaderboard.Period;
+import dev.efnilite.ip.leaderboard.PeriodLeaderboard;
 import dev.efnilite.vilib.inventory.item.Item;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+
 /**
  * Interface for all modes.
  * Every registered mode needs to inherit this class, because it needs identifying functions.
@@ -30,6 +34,13 @@ public interface Mode {
      */
     @Nullable Leaderboard getLeaderboard();
 
+    /**
+     * @return The {@link PeriodLeaderboard}s that belong to this mode, by period. Empty by default.
+     */
+    default @NotNull Map<Period, PeriodLeaderboard> getPeriodLeaderboards() {
+        return Map.of();
+    }
+
     /**
      * @return The internal name used for this mode.
      */
@@ -6,9 +6,11 @@ import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
 import dev.efnilite.ip.generator.ParkourGenerator;
 import dev.efnilite.ip.generator.Profile;
+import dev.efnilite.ip.generator.Profile.Setting;
 import dev.efnilite.ip.menu.ParkourOption;
 import dev.efnilite.ip.mode.MultiMode;
 import dev.efnilite.ip.player.data.PreviousData;
+import dev.efnilite.ip.storage.SaveQueue;
 import dev.efnilite.ip.world.WorldDivider;
 import dev.efnilite.vilib.inventory.item.Item;
 import dev.efnilite.vilib.util.Colls;
@@ -155,15 +157,15 @@ public class ParkourPlayer extends ParkourUser {
     public void updateGeneratorSettings(ParkourGenerator generator) {
         Profile profile = generator.profile;
 
-        profile.set("schematicDifficulty", schematicDifficulty.toString())
-                .set("blockLead", blockLead.toString())
-                .set("particles", particles.toString())
-                .set("sound", sound.toString())
-                .set("useSpecialBlocks", useSpecialBlocks.toString())
-                .set("showFallMessage", showFallMessage.toString())
-                .set("showScoreboard", showScoreboard.toString())
-                .set("selectedTime", selectedTime.toString())
-                .set("style", style);
+        profile.set(Setting.SCHEMATIC_DIFFICULTY, schematicDifficulty)
+                .set(Setting.BLOCK_LEAD, blockLead)
+                .set(Setting.PARTICLES, particles)
+                .set(Setting.SOUND, sound)
+                .set(Setting.USE_SPECIAL_BLOCKS, useSpecialBlocks)
+                .set(Setting.SHOW_FALL_MESSAGE, showFallMessage)
+                .set(Setting.SHOW_SCOREBOARD, showScoreboard)
+                .set(Setting.SELECTED_TIME, selectedTime)
+                .set(Setting.STYLE, style);
 
         generator.overrideProfile();
     }
@@ -172,12 +174,11 @@ public class ParkourPlayer extends ParkourUser {
      * Saves the player's data to their file
      */
     public void save(boolean async) {
-        Runnable write = () -> IP.getStorage().writePlayer(this);
-
         if (async) {
-            Task.create(IP.getPlugin()).async().execute(write).run();
+            SaveQueue.save(this);
         } else {
-            write.run();
+            SaveQueue.cancel(this);
+            IP.getStorage().writePlayer(this);
         }
     }
 
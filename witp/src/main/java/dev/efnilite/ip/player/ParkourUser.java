@@ -9,6 +9,7 @@ import dev.efnilite.ip.config.Config;
 import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.config.Option;
 import dev.efnilite.ip.generator.ParkourGenerator;
+import dev.efnilite.ip.generator.Profile;
 import dev.efnilite.ip.leaderboard.Leaderboard;
 import dev.efnilite.ip.leaderboard.Score;
 import dev.efnilite.ip.menu.ParkourOption;
@@ -19,6 +20,7 @@ import dev.efnilite.ip.util.Util;
 import dev.efnilite.ip.world.WorldDivider;
 import dev.efnilite.vilib.lib.fastboard.fastboard.FastBoard;
 import dev.efnilite.vilib.util.Strings;
+import dev.efnilite.vilib.util.Task;
 import me.clip.placeholderapi.PlaceholderAPI;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
@@ -29,7 +31,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -40,14 +45,49 @@ import java.util.stream.Stream;
  */
 public abstract class ParkourUser {
 
+    /**
+     * Registers a player once its settings have been read, without waiting on storage in the current thread.
+     * If the settings have already been read, the player is registered right away.
+     * Otherwise, the player is registered on the main thread after reading, if still online.
+     * This automatically unregisters the player if it is already registered.
+     *
+     * @param player The player
+     * @param then   Called with the ParkourPlayer instance of the newly joined player
+     */
+    public static void register(@NotNull Player player, @NotNull Consumer<ParkourPlayer> then) {
+        CompletableFuture<Map<String, Object>> settings = IP.getSettingsCache().load(player.getUniqueId());
+
+        if (settings.isDone()) {
+            IP.getSettingsCache().take(player.getUniqueId());
+            then.accept(register(player, settings.join()));
+            return;
+        }
+
+        settings.thenAccept(read -> Task.create(IP.getPlugin()).execute(() -> {
+            if (player.isOnline()) {
+                IP.getSettingsCache().take(player.getUniqueId());
+                then.accept(register(player, read));
+            }
+        }).run());
+    }
+
     /**
      * Registers a player. This registers the player internally.
      * This automatically unregisters the player if it is already registered.
+     * <p>If the settings of player haven't been prefetched, they are read from storage on the current thread,
+     * which blocks the server when called on the main thread. Use {@link #register(Player, Consumer)} to avoid this.</p>
      *
      * @param player The player
      * @return the ParkourPlayer instance of the newly joined player
      */
     public static @NotNull ParkourPlayer register(@NotNull Player player) {
+        // prefetched when logging in, otherwise read now
+        Map<String, Object> settings = IP.getSettingsCache().take(player.getUniqueId());
+
+        return register(player, settings != null ? settings : IP.getSettingsCache().read(player.getUniqueId()));
+    }
+
+    private static ParkourPlayer register(Player player, Map<String, Object> settings) {
         PreviousData data = null;
         ParkourUser existing = getUser(player);
 
@@ -62,7 +102,8 @@ public abstract class ParkourUser {
         joinCount++;
         new ParkourJoinEvent(pp).call();
 
-        IP.getStorage().readPlayer(pp);
+        pp.setSettings(settings);
+
         return pp;
     }
 
@@ -253,15 +294,15 @@ public abstract class ParkourUser {
      */
     public void updateScoreboard(ParkourGenerator generator) {
         // board can be null a few ticks after on player leave
-        if (board == null || board.isDeleted() || !generator.profile.get("showScoreboard").asBoolean()) {
+        if (board == null || board.isDeleted() || !generator.profile.getBoolean(Profile.Setting.SHOW_SCOREBOARD)) {
             return;
         }
 
         Leaderboard leaderboard = generator.getMode().getLeaderboard();
-        Score top = leaderboard == null ? new Score("?", "?", "?", 0) : leaderboard.getScoreAtRank(1);
-        Score high = leaderboard == null ? new Score("?", "?", "?", 0) : leaderboard.get(getUUID());
+        Score top = leaderboard == null ? Score.UNKNOWN : leaderboard.getScoreAtRank(1);
+        Score high = leaderboard == null ? Score.UNKNOWN : leaderboard.get(getUUID());
         if (top == null) {
-            top = new Score("?", "?", "?", 0);
+            top = Score.UNKNOWN;
         }
 
         board.updateTitle(replace(Locales.getString(player, "scoreboard.title"), top, high, generator));
@@ -280,10 +321,10 @@ public abstract class ParkourUser {
 
                 .replace("%top_score%", Integer.toString(top.score()))
                 .replace("%top_player%", top.name())
-                .replace("%top_time%", top.time())
+                .replace("%top_time%", top.formatTime())
 
                 .replace("%high_score%", Integer.toString(high.score()))
-                .replace("%high_score_time%", high.time()));
+                .replace("%high_score_time%", high.formatTime()));
     }
 
     // translate papi
@@ -46,10 +46,25 @@ public class SchematicPaster {
      * @return The affected blocks.
      */
     public List<Block> paste(Location location, double rotation, Map<Vector, BlockData> vectorDataMap) {
-        return paste(() -> Colls.thread(vectorDataMap)
-            .mapkv((vector) -> location.clone().add(round(vector.rotateAroundY(rotation))).getBlock(),
+        return paste(() -> Colls.thread(rotate(rotation, vectorDataMap))
+            .mapk((k, v) -> location.clone().add(k).getBlock())
+            .get());
+    }
+
+    /**
+     * Rotates the offsets of a schematic and the {@link Directional} blocks in it.
+     * The provided map is left unchanged.
+     *
+     * @param rotation      The rotation where y is the yaw in rad.
+     * @param vectorDataMap The map.
+     * @return The map of rotated offsets and {@link BlockData}.
+     */
+    public Map<Vector, BlockData> rotate(double rotation, Map<Vector, BlockData> vectorDataMap) {
+        return Colls.thread(vectorDataMap)
+            .mapkv((vector) -> round(vector.clone().rotateAroundY(rotation)),
                 (data) -> {
-                    if (data instanceof Directional directional) {
+                    if (data instanceof Directional original) {
+                        Directional directional = (Directional) original.clone();
                         directional.setFacing(getClosest(directional.getFacing().getDirection(), rotation, directional.getFaces()));
                         return directional;
                     }
@@ -60,7 +75,7 @@ public class SchematicPaster {
 
                     return data;
                 })
-            .get());
+            .get();
     }
 
     private BlockFace getClosest(Vector direction, double rotation, Set<BlockFace> allowedFaces) {
@@ -2,14 +2,17 @@ package dev.efnilite.ip.session;
 
 import dev.efnilite.ip.config.Locales;
 import dev.efnilite.ip.generator.ParkourGenerator;
+import dev.efnilite.ip.generator.RunLog;
 import dev.efnilite.ip.player.ParkourPlayer;
 import dev.efnilite.ip.player.ParkourSpectator;
 import dev.efnilite.ip.player.ParkourUser;
+import dev.efnilite.ip.world.BlockClearer;
 import dev.efnilite.ip.world.WorldDivider;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 /**
@@ -41,6 +44,16 @@ public class Session {
      */
     public Visibility visibility = Visibility.PUBLIC;
 
+    /**
+     * The seed of the first run in this session.
+     */
+    public long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Whether this session replays a seed. If true, every run uses {@link #seed}.
+     */
+    public boolean replay = false;
+
     /**
      * Function that takes the current session and returns whether new players should be accepted.
      */
@@ -107,7 +120,7 @@ public class Session {
 
         if (players.length > 0 && this.players.size() == 0) {
             generator.reset(false);
-            WorldDivider.disassociate(this);
+            BlockClearer.release(this);
         }
     }
 
@@ -208,6 +221,8 @@ public class Session {
         private Function<Session, Boolean> isAcceptingPlayers;
         private Function<Session, Boolean> isAcceptingSpectators;
         private ParkourPlayer[] players;
+        private Long seed;
+        private RunLog.Run run;
         private final Function<Session, ParkourGenerator> generator;
 
         private Builder(Function<Session, ParkourGenerator> generator) {
@@ -253,6 +268,33 @@ public class Session {
             return this;
         }
 
+        /**
+         * Replays a seed. Every run in this session will generate the same course.
+         *
+         * @param s The seed.
+         * @return This instance.
+         * @see Session#seed
+         */
+        public Builder replay(long s) {
+            seed = s;
+
+            return this;
+        }
+
+        /**
+         * Replays a logged run. Every run in this session will generate the same course, using the settings of run.
+         *
+         * @param r The run.
+         * @return This instance.
+         * @see #replay(long)
+         */
+        public Builder replay(RunLog.Run r) {
+            seed = r.seed();
+            run = r;
+
+            return this;
+        }
+
         /**
          * Builds a new session instance with the provided settings.
          * Assigns the session with {@link WorldDivider#associate(Session)}.
@@ -267,6 +309,10 @@ public class Session {
             if (isAcceptingPlayers != null) session.isAcceptingPlayers = isAcceptingPlayers;
             if (isAcceptingSpectators != null) session.isAcceptingSpectators = isAcceptingSpectators;
             if (players != null) session.addPlayers(players);
+            if (seed != null) {
+                session.seed = seed;
+                session.replay = true;
+            }
 
             session.generator = generator.apply(session);
 
@@ -278,6 +324,10 @@ public class Session {
                 });
             }
 
+            if (run != null) {
+                run.apply(session.generator.profile);
+            }
+
             session.generator.island.build();
 
             return session;
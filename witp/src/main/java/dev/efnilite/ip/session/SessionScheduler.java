@@ -0,0 +1,202 @@
+package dev.efnilite.ip.session;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.GeneratorOption;
+import dev.efnilite.ip.generator.ParkourGenerator;
+import dev.efnilite.vilib.util.Task;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>Ticks all active generators from a single repeating task.</p>
+ * <p>The location and score check of every generator ({@link ParkourGenerator#tick()}) always runs on time.
+ * Updating players and spectators ({@link ParkourGenerator#updatePlayers()}) is not critical,
+ * so it is spread round-robin across ticks while staying within {@link Option#SCHEDULER_TICK_BUDGET}, measured after the checks.
+ * At least one generator is updated every tick, so updates never stop when the checks alone use up the budget.</p>
+ * <p>Sessions that take longer than {@link Option#SCHEDULER_SESSION_BUDGET} in a single tick are reported.</p>
+ *
+ * @since 5.1.0
+ */
+public class SessionScheduler {
+
+    /**
+     * The amount of ticks between overrun reports in the console.
+     */
+    public static final int REPORT_INTERVAL = 20 * 60;
+
+    private static final List<Entry> entries = new ArrayList<>();
+    private static final Set<ParkourGenerator> generators = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static BukkitTask task;
+    private static long tick = 0;
+    private static int cursor = 0;
+    private static int registered = 0;
+
+    /**
+     * Starts ticking a generator. Stopped generators are removed automatically.
+     *
+     * @param generator The generator.
+     */
+    public static void register(@NotNull ParkourGenerator generator) {
+        if (!generators.add(generator)) {
+            return;
+        }
+
+        int period = generator.generatorOptions.contains(GeneratorOption.INCREASED_TICK_ACCURACY) ? 1 : Math.max(1, Option.GENERATOR_CHECK);
+
+        // spread generators with the same period over different ticks
+        entries.add(new Entry(generator, period, registered++ % period));
+
+        if (task == null) {
+            task = Task.create(IP.getPlugin())
+                .repeat(1)
+                .execute(SessionScheduler::run)
+                .run();
+        }
+    }
+
+    /**
+     * @param generator The generator.
+     * @return True when generator is being ticked, false if not.
+     */
+    public static boolean isRegistered(@NotNull ParkourGenerator generator) {
+        return generators.contains(generator);
+    }
+
+    /**
+     * @return The amount of generators being ticked.
+     */
+    public static int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The sessions that overran {@link Option#SCHEDULER_SESSION_BUDGET} since they were registered, slowest first.
+     */
+    @NotNull
+    public static List<Overrun> getOverruns() {
+        return entries.stream()
+            .filter(entry -> entry.overruns > 0)
+            .map(entry -> new Overrun(entry.generator.session, entry.overruns, entry.worst))
+            .sorted(Comparator.comparingLong(Overrun::worst).reversed())
+            .toList();
+    }
+
+    private static void run() {
+        entries.removeIf(entry -> {
+            if (entry.generator.stopped) {
+                generators.remove(entry.generator);
+                return true;
+            }
+            return false;
+        });
+
+        if (entries.isEmpty()) {
+            task.cancel();
+            task = null;
+            return;
+        }
+
+        // critical checks, generators registered while ticking are appended and checked from the next tick
+        int checked = entries.size();
+        for (int i = 0; i < checked; i++) {
+            Entry entry = entries.get(i);
+
+            if ((tick + entry.phase) % entry.period != 0 || entry.generator.stopped) {
+                continue;
+            }
+
+            long before = System.nanoTime();
+            entry.generator.tick();
+            entry.spent = System.nanoTime() - before;
+        }
+
+        // non-critical updates, round-robin until the budget has been used
+        long start = System.nanoTime();
+        int size = entries.size();
+        int first = cursor % size;
+        int updates = 0;
+        for (int i = 0; i < size && (updates == 0 || System.nanoTime() - start < Option.SCHEDULER_TICK_BUDGET); i++) {
+            Entry entry = entries.get((first + i) % size);
+
+            if (tick - entry.updated < entry.period || entry.generator.stopped) {
+                continue;
+            }
+
+            long before = System.nanoTime();
+            entry.generator.updatePlayers();
+            entry.spent += System.nanoTime() - before;
+            entry.updated = tick;
+            updates++;
+
+            cursor = (first + i + 1) % size;
+        }
+
+        for (Entry entry : entries) {
+            if (entry.spent > Option.SCHEDULER_SESSION_BUDGET) {
+                entry.overruns++;
+                entry.recent++;
+                entry.worst = Math.max(entry.worst, entry.spent);
+                entry.recentWorst = Math.max(entry.recentWorst, entry.spent);
+            }
+            entry.spent = 0;
+        }
+
+        if (++tick % REPORT_INTERVAL == 0) {
+            report();
+        }
+    }
+
+    // logs the sessions that overran the budget since the last report
+    private static void report() {
+        for (Entry entry : entries) {
+            if (entry.recent == 0) {
+                continue;
+            }
+
+            IP.logging().warning("Session of %s overran the tick budget %d time(s) in the last minute, worst: %.2f ms"
+                    .formatted(entry.generator.player.getName(), entry.recent, entry.recentWorst / 1_000_000.0));
+
+            entry.recent = 0;
+            entry.recentWorst = 0;
+        }
+    }
+
+    /**
+     * A session that overran the budget.
+     *
+     * @param session  The session.
+     * @param overruns The amount of ticks in which the budget was overrun.
+     * @param worst    The longest time spent in a single tick in nanoseconds.
+     */
+    public record Overrun(@NotNull Session session, int overruns, long worst) {
+
+    }
+
+    private static class Entry {
+
+        private final ParkourGenerator generator;
+        private final int period;
+        private final int phase;
+
+        private long updated = Long.MIN_VALUE / 2;
+        private long spent;
+        private long worst;
+        private int overruns;
+        private int recent;
+        private long recentWorst;
+
+        private Entry(ParkourGenerator generator, int period, int phase) {
+            this.generator = generator;
+            this.period = period;
+            this.phase = phase;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package dev.efnilite.ip.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A bounded pool of JDBC connections, used by {@link StorageSQL}.</p>
+ * <p>Connections are opened when needed, up to the size of the pool. A connection is only checked when it has been
+ * idle for a while, so busy connections never wait on a round trip to the database. Every connection caches
+ * the statements prepared on it.</p>
+ *
+ * @since 5.1.0
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    /**
+     * How long in millis a connection may be idle before it's checked when borrowed.
+     */
+    private static final long VALIDATE_AFTER = 30_000;
+
+    /**
+     * How long in seconds to wait for a connection to become available.
+     */
+    private static final int BORROW_TIMEOUT = 30;
+
+    /**
+     * The maximum amount of statements cached per connection.
+     */
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int size;
+    private final String[] setup;
+
+    private final BlockingQueue<Pooled> idle;
+    private final AtomicInteger open = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param url      The jdbc url.
+     * @param username The username.
+     * @param password The password.
+     * @param size     The maximum amount of open connections.
+     * @param setup    The statements executed on every new connection.
+     */
+    ConnectionPool(@NotNull String url, String username, String password, int size, String... setup) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.size = Math.max(1, size);
+        this.setup = setup;
+        this.idle = new ArrayBlockingQueue<>(this.size);
+    }
+
+    /**
+     * Borrows a connection, runs action with it and returns it to the pool.
+     * Connections that failed with a connection error are closed instead of returned.
+     *
+     * @param action The action.
+     * @param <T>    The result type.
+     * @return The result of action.
+     * @throws SQLException If no connection could be borrowed or action failed.
+     */
+    <T> T use(@NotNull Action<T> action) throws SQLException {
+        Pooled connection = borrow();
+        boolean broken = false;
+
+        try {
+            return action.run(connection);
+        } catch (SQLException ex) {
+            // class 08 is a connection exception
+            broken = ex.getSQLState() != null && ex.getSQLState().startsWith("08");
+            throw ex;
+        } finally {
+            release(connection, broken);
+        }
+    }
+
+    private Pooled borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        while (true) {
+            Pooled connection = idle.poll();
+
+            if (connection == null) {
+                connection = open();
+            }
+
+            if (connection == null) {
+                try {
+                    connection = idle.poll(BORROW_TIMEOUT, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection", ex);
+                }
+
+                if (connection == null) {
+                    throw new SQLException("Timed out waiting for a connection");
+                }
+            }
+
+            if (System.currentTimeMillis() - connection.released < VALIDATE_AFTER || connection.connection.isValid(5)) {
+                return connection;
+            }
+
+            discard(connection);
+        }
+    }
+
+    // opens a new connection if the pool isn't full, otherwise returns null
+    private Pooled open() throws SQLException {
+        while (true) {
+            int current = open.get();
+
+            if (current >= size) {
+                return null;
+            }
+
+            if (open.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+
+        Connection connection = null;
+
+        try {
+            connection = DriverManager.getConnection(url, username, password);
+
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : setup) {
+                    statement.execute(sql);
+                }
+            }
+
+            return new Pooled(connection);
+        } catch (SQLException ex) {
+            open.decrementAndGet();
+
+            if (connection != null) {
+                connection.close();
+            }
+            throw ex;
+        }
+    }
+
+    private void release(Pooled connection, boolean broken) {
+        if (broken || closed) {
+            discard(connection);
+            return;
+        }
+
+        connection.released = System.currentTimeMillis();
+
+        if (!idle.offer(connection)) {
+            discard(connection);
+        }
+    }
+
+    private void discard(Pooled connection) {
+        open.decrementAndGet();
+        connection.close();
+    }
+
+    /**
+     * Closes all idle connections. Borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        Pooled connection;
+        while ((connection = idle.poll()) != null) {
+            discard(connection);
+        }
+    }
+
+    /**
+     * An action that uses a borrowed connection.
+     *
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    interface Action<T> {
+
+        T run(Pooled connection) throws SQLException;
+
+    }
+
+    /**
+     * A pooled connection with its cached statements. Only used by one thread at a time.
+     */
+    static final class Pooled {
+
+        final Connection connection;
+
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= STATEMENT_CACHE_SIZE) {
+                    return false;
+                }
+
+                try {
+                    eldest.getValue().close();
+                } catch (SQLException ignored) {
+
+                }
+                return true;
+            }
+        };
+
+        private long released = System.currentTimeMillis();
+
+        private Pooled(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Returns the cached statement for sql, preparing it if it isn't cached. Don't close the statement.
+         *
+         * @param sql The sql.
+         * @return The statement.
+         * @throws SQLException If the statement could not be prepared.
+         */
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+
+            statement.clearParameters();
+            statement.clearBatch();
+            return statement;
+        }
+
+        private void close() {
+            try {
+                connection.close(); // closes all statements
+            } catch (SQLException ignored) {
+
+            }
+            statements.clear();
+        }
+    }
+}
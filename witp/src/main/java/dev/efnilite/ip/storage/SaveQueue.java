@@ -0,0 +1,235 @@
+package dev.efnilite.ip.storage;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.player.ParkourPlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Writes player data in the background, in batches.</p>
+ * <p>Saving a player that is still waiting to be written only keeps the latest state of that player. Batches are written
+ * in order on a single thread, so saves of the same player never race each other. Call {@link #drain()} on shutdown.</p>
+ * <p>Players that are waiting to be written or are being written can be looked up with {@link #getPending(UUID)},
+ * since storage doesn't have their latest state yet. Players that fail to be written are queued again, unless they
+ * have been saved again in the meantime, and are retried by the next flush.</p>
+ *
+ * @since 5.1.0
+ */
+public class SaveQueue {
+
+    /**
+     * The maximum amount of players written at once.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Players waiting to be written, in the order they were first saved. Also guards all other state.
+     */
+    private static final Map<UUID, Pending> pending = new LinkedHashMap<>();
+
+    /**
+     * Players in the batches that are being written.
+     */
+    private static final Map<UUID, ParkourPlayer> writing = new HashMap<>();
+
+    private static ExecutorService executor;
+    private static boolean scheduled;
+
+    /**
+     * The time in millis between a save and it being written, of the last written batch.
+     */
+    private static volatile long latency;
+
+    /**
+     * Queues a player to be written.
+     *
+     * @param player The player.
+     */
+    public static void save(@NotNull ParkourPlayer player) {
+        synchronized (pending) {
+            // a coalesced save has been waiting since the first one
+            Pending previous = pending.get(player.getUUID());
+            pending.put(player.getUUID(), new Pending(player, previous == null ? System.currentTimeMillis() : previous.queued));
+
+            if (scheduled) {
+                return;
+            }
+
+            scheduled = true;
+
+            if (executor == null) {
+                executor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "IP save queue");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            executor.execute(SaveQueue::flush);
+        }
+    }
+
+    /**
+     * Removes a player from the queue, e.g. because it's written right away.
+     *
+     * @param player The player.
+     */
+    public static void cancel(@NotNull ParkourPlayer player) {
+        synchronized (pending) {
+            pending.remove(player.getUUID());
+        }
+    }
+
+    /**
+     * Returns the latest saved state of a player that hasn't been written yet.
+     * Read this before reading storage, as storage may still hold an older state.
+     *
+     * @param uuid The uuid.
+     * @return The player, null if uuid isn't waiting to be written.
+     */
+    @Nullable
+    public static ParkourPlayer getPending(@NotNull UUID uuid) {
+        synchronized (pending) {
+            Pending save = pending.get(uuid);
+
+            return save != null ? save.player : writing.get(uuid);
+        }
+    }
+
+    /**
+     * @return The amount of players waiting to be written.
+     */
+    public static int getQueueDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * @return The time in millis between a save and it being written, of the last written batch.
+     */
+    public static long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Waits for the batch that is being written and writes all remaining players on the current thread. Used on shutdown.
+     */
+    public static void drain() {
+        ExecutorService running;
+
+        synchronized (pending) {
+            running = executor;
+            executor = null;
+        }
+
+        if (running != null) {
+            running.shutdown();
+
+            try {
+                if (!running.awaitTermination(30, TimeUnit.SECONDS)) {
+                    IP.logging().severe("Timed out while waiting for player data to be written");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<Pending> batch;
+        while (!(batch = poll()).isEmpty()) {
+            if (!write(batch)) {
+                IP.logging().severe("Could not write data of %d players before shutting down".formatted(getQueueDepth()));
+                return;
+            }
+        }
+    }
+
+    // writes batches until the queue is empty, or stops until the next save when a batch fails
+    private static void flush() {
+        while (true) {
+            List<Pending> batch;
+
+            synchronized (pending) {
+                batch = poll();
+
+                if (batch.isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+            }
+
+            if (!write(batch)) {
+                synchronized (pending) {
+                    scheduled = false;
+                }
+                return;
+            }
+        }
+    }
+
+    // moves the first batch from the queue to the players being written
+    private static List<Pending> poll() {
+        synchronized (pending) {
+            List<Pending> batch = new ArrayList<>(Math.min(BATCH_SIZE, pending.size()));
+            Iterator<Pending> iterator = pending.values().iterator();
+
+            while (batch.size() < BATCH_SIZE && iterator.hasNext()) {
+                Pending save = iterator.next();
+                iterator.remove();
+
+                batch.add(save);
+                writing.put(save.player.getUUID(), save.player);
+            }
+
+            return batch;
+        }
+    }
+
+    // returns true when all players in batch have been written, failed players are queued again
+    private static boolean write(List<Pending> batch) {
+        long oldest = Long.MAX_VALUE;
+        List<ParkourPlayer> players = new ArrayList<>(batch.size());
+
+        for (Pending save : batch) {
+            players.add(save.player);
+            oldest = Math.min(oldest, save.queued);
+        }
+
+        Set<ParkourPlayer> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        try {
+            failed.addAll(IP.getStorage().writePlayers(players));
+        } catch (Exception ex) {
+            IP.logging().severe("Error while trying to write data of %d players".formatted(players.size()) + ex);
+            failed.addAll(players);
+        }
+
+        synchronized (pending) {
+            for (Pending save : batch) {
+                // a newer save of the same player replaces the failed one
+                if (failed.contains(save.player)) {
+                    pending.putIfAbsent(save.player.getUUID(), save);
+                }
+
+                // a newer save of the same player may be being written by now
+                writing.remove(save.player.getUUID(), save.player);
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            return false;
+        }
+
+        latency = System.currentTimeMillis() - oldest;
+        return true;
+    }
+
+    private record Pending(ParkourPlayer player, long queued) {
+
+    }
+}
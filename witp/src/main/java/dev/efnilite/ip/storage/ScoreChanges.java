@@ -0,0 +1,28 @@
+package dev.efnilite.ip.storage;
+
+import dev.efnilite.ip.leaderboard.Score;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The result of reading the scores that changed since a previous read.
+ *
+ * @param full    True if changed contains all scores and should replace everything that was read before.
+ * @param changed The scores that were added or updated.
+ * @param removed The uuids of the scores that were removed. Always empty if full.
+ * @param version The version to pass to the next read.
+ * @see Storage#readScores(String, long)
+ * @since 5.1.0
+ */
+public record ScoreChanges(boolean full, @NotNull Map<UUID, Score> changed, @NotNull Set<UUID> removed, long version) {
+
+    /**
+     * @return True when nothing changed.
+     */
+    public boolean isEmpty() {
+        return !full && changed.isEmpty() && removed.isEmpty();
+    }
+}
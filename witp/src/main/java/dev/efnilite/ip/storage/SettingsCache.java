@@ -0,0 +1,132 @@
+package dev.efnilite.ip.storage;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.player.ParkourPlayer;
+import dev.efnilite.vilib.util.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Keeps player settings that were read ahead of time, so joining doesn't have to wait on storage.</p>
+ * <p>Settings are prefetched when a player logs in. Entries are removed when they are used or expire,
+ * and prefetching stops when the cache is full.</p>
+ * <p>Players that left recently may not have been written to storage yet, so their settings are read from the
+ * {@link SaveQueue} first.</p>
+ *
+ * @since 5.1.0
+ */
+public final class SettingsCache {
+
+    /**
+     * How long in millis read settings stay valid.
+     */
+    private static final long EXPIRE_AFTER = 60_000;
+
+    /**
+     * The maximum amount of prefetched entries.
+     */
+    private static final int MAX_SIZE = 1000;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the settings of uuid on the current thread, if they haven't been read yet. Only call this off the main thread.
+     *
+     * @param uuid The uuid.
+     */
+    public void prefetch(@NotNull UUID uuid) {
+        if (entries.size() >= MAX_SIZE) {
+            entries.values().removeIf(Entry::isExpired);
+
+            if (entries.size() >= MAX_SIZE) {
+                return;
+            }
+        }
+
+        load(uuid, Runnable::run);
+    }
+
+    /**
+     * Reads the settings of uuid asynchronously, if they haven't been read yet.
+     *
+     * @param uuid The uuid.
+     * @return The future settings, which may already be complete.
+     */
+    @NotNull
+    public CompletableFuture<Map<String, Object>> load(@NotNull UUID uuid) {
+        return load(uuid, runnable -> Task.create(IP.getPlugin()).async().execute(runnable).run());
+    }
+
+    private CompletableFuture<Map<String, Object>> load(UUID uuid, Executor executor) {
+        Entry created = new Entry(new CompletableFuture<>(), System.currentTimeMillis());
+        Entry entry = entries.compute(uuid, (key, existing) -> existing == null || existing.isExpired() ? created : existing);
+
+        // read outside of compute, as reading may block
+        if (entry == created) {
+            executor.execute(() -> {
+                try {
+                    created.settings.complete(read(uuid));
+                } catch (Exception ex) {
+                    IP.logging().severe("Error while trying to read settings of %s".formatted(uuid) + ex);
+                    created.settings.complete(Map.of());
+                }
+            });
+        }
+
+        return entry.settings;
+    }
+
+    /**
+     * Reads the settings of uuid on the current thread, without caching them.
+     * The state of a player that is still waiting to be written takes precedence over storage.
+     *
+     * @param uuid The uuid.
+     * @return The settings.
+     */
+    @NotNull
+    public Map<String, Object> read(@NotNull UUID uuid) {
+        ParkourPlayer pending = SaveQueue.getPending(uuid);
+
+        return pending != null ? StorageDisk.toSettings(pending) : IP.getStorage().readPlayer(uuid);
+    }
+
+    /**
+     * Removes and returns the settings of uuid, if they have been read and are still valid.
+     *
+     * @param uuid The uuid.
+     * @return The settings, null if they aren't available.
+     */
+    @Nullable
+    public Map<String, Object> take(@NotNull UUID uuid) {
+        Entry entry = entries.get(uuid);
+
+        if (entry == null || entry.isExpired() || !entry.settings.isDone()) {
+            return null;
+        }
+
+        entries.remove(uuid, entry);
+        return entry.settings.getNow(null);
+    }
+
+    /**
+     * Removes the settings of uuid, e.g. when they may have changed.
+     *
+     * @param uuid The uuid.
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        entries.remove(uuid);
+    }
+
+    private record Entry(CompletableFuture<Map<String, Object>> settings, long created) {
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - created > EXPIRE_AFTER;
+        }
+    }
+}
@@ -4,7 +4,10 @@ import dev.efnilite.ip.leaderboard.Score;
 import dev.efnilite.ip.player.ParkourPlayer;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -36,19 +39,54 @@ public interface Storage {
     @NotNull Map<UUID, Score> readScores(@NotNull String mode);
 
     /**
-     * Writes scores.
+     * Reads the scores that changed since a previous read.
+     * By default, this reads all scores, for implementations that don't keep track of versions.
      *
-     * @param mode   The mode.
-     * @param scores The score map.
+     * @param mode  The mode.
+     * @param since The version returned by the previous read, or 0 to read all scores.
+     * @return The changes.
      */
-    void writeScores(@NotNull String mode, @NotNull Map<UUID, Score> scores);
+    default @NotNull ScoreChanges readScores(@NotNull String mode, long since) {
+        return new ScoreChanges(true, readScores(mode), Set.of(), 0);
+    }
 
     /**
-     * Reads player data and applies changes.
+     * Writes the scores that changed since the last write.
      *
-     * @param player The player.
+     * @param mode    The mode.
+     * @param scores  All scores, for implementations that need to rewrite everything.
+     * @param changed The scores that were added or updated since the last write.
+     * @param removed The uuids of the scores that were removed since the last write.
+     * @return True when all changes were written, false if they should be written again later.
+     */
+    boolean writeScores(@NotNull String mode, @NotNull Map<UUID, Score> scores, @NotNull Map<UUID, Score> changed, @NotNull Set<UUID> removed);
+
+    /**
+     * Checks whether scores of a mode have ever been stored, without creating the place they are stored in.
+     * By default, this is always true, for implementations where reading scores that were never stored is harmless.
+     *
+     * @param mode The mode.
+     * @return True when the scores of mode may exist, false if they certainly don't.
+     */
+    default boolean exists(@NotNull String mode) {
+        return true;
+    }
+
+    /**
+     * Removes all scores of a mode, including the place they are stored in.
+     *
+     * @param mode The mode.
+     */
+    void deleteScores(@NotNull String mode);
+
+    /**
+     * Reads player data. May block, so this shouldn't be called on the main thread.
+     *
+     * @param uuid The uuid of the player.
+     * @return The settings, as used by {@link ParkourPlayer#setSettings(Map)}. Empty if the player has no data.
+     * @see SettingsCache
      */
-    void readPlayer(@NotNull ParkourPlayer player);
+    @NotNull Map<String, Object> readPlayer(@NotNull UUID uuid);
 
     /**
      * Writes player data.
@@ -57,4 +95,17 @@ public interface Storage {
      */
     void writePlayer(@NotNull ParkourPlayer player);
 
+    /**
+     * Writes the data of multiple players at once. By default, this writes every player separately.
+     *
+     * @param players The players.
+     * @return The players whose data could not be written, empty if all were written.
+     * @see SaveQueue
+     */
+    default @NotNull Collection<ParkourPlayer> writePlayers(@NotNull Collection<ParkourPlayer> players) {
+        players.forEach(this::writePlayer);
+
+        return List.of();
+    }
+
 }
@@ -6,23 +6,55 @@ import dev.efnilite.ip.leaderboard.Score;
 import dev.efnilite.ip.player.ParkourPlayer;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Local disk (json) storage manager.
+ * <p>Local disk (json) storage manager.</p>
+ * <p>Files are never rewritten in place. A new version is written to a temporary file, which then replaces the old
+ * file, so readers and crashes only ever see a complete version. Every file is guarded by one of a fixed set of
+ * read-write locks, so there is only one writer per file and reads never interleave with writes.</p>
  *
  * @since 5.0.0
  */
-// todo add concurrency locks
 public final class StorageDisk implements Storage {
 
+    /**
+     * The minimum amount of entries in a change log before it's compacted into the leaderboard file.
+     */
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    private static final char CHANGED = '+';
+    private static final char REMOVED = '-';
+
+    /**
+     * The amount of entries in the change log of each mode.
+     */
+    private final Map<String, Integer> changes = new ConcurrentHashMap<>();
+
+    /**
+     * Striped locks, shared by all files with the same key hash.
+     */
+    private final ReadWriteLock[] locks = new ReadWriteLock[64];
+
+    public StorageDisk() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
     @Override
     public void init(String mode) {
         // nothing to see here...
@@ -35,44 +67,194 @@ public final class StorageDisk implements Storage {
 
     @Override
     public @NotNull Map<UUID, Score> readScores(@NotNull String mode) {
-        File file = getLeaderboardFile(mode);
+        Lock lock = getLock(mode).readLock();
+        lock.lock();
 
-        if (!file.exists()) {
-            return new HashMap<>();
+        try {
+            return readLeaderboard(mode, getLeaderboardFile(mode));
+        } finally {
+            lock.unlock();
         }
+    }
 
-        try (FileReader reader = new FileReader(file)) {
-            LeaderboardContainer read = IP.getGson().fromJson(reader, LeaderboardContainer.class);
+    private Map<UUID, Score> readLeaderboard(String mode, File file) {
+        Map<UUID, Score> scores = new HashMap<>();
 
-            if (read == null) {
+        if (file.exists()) {
+            try (FileReader reader = new FileReader(file, StandardCharsets.UTF_8)) {
+                LeaderboardContainer read = IP.getGson().fromJson(reader, LeaderboardContainer.class);
+
+                if (read != null) {
+                    read.serialized.forEach((uuid, score) -> scores.put(uuid, Score.fromString(score)));
+                }
+            } catch (IOException ex) {
+                IP.logging().severe("Error while trying to read leaderboard file %s".formatted(mode) + ex);
                 return new HashMap<>();
             }
+        }
 
-            Map<UUID, String> serialized = new LinkedHashMap<>(read.serialized);
-            Map<UUID, Score> scores = new HashMap<>();
+        readChanges(mode, scores);
 
-            serialized.forEach((uuid, score) -> scores.put(uuid, Score.fromString(score)));
+        return scores;
+    }
 
-            return scores;
-        } catch (IOException ex) {
-            IP.logging().severe("Error while trying to read leaderboard file %s".formatted(mode) +  ex);
-            return new HashMap<>();
+    // applies all changes in the change log to scores
+    private void readChanges(String mode, Map<UUID, Score> scores) {
+        File file = getChangesFile(mode);
+        int entries = 0;
+
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                // the last line was only partially written if the file doesn't end with a line break, e.g. after a crash
+                boolean torn = getCompleteLength(channel) < channel.size();
+
+                String next = reader.readLine();
+                while (next != null) {
+                    String line = next;
+                    next = reader.readLine();
+
+                    if (next == null && torn) {
+                        IP.logging().warning("Skipping partially written change in leaderboard changes of %s: %s".formatted(mode, line));
+                        break;
+                    }
+
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+
+                    try {
+                        if (line.charAt(0) == REMOVED) {
+                            scores.remove(UUID.fromString(line.substring(1)));
+                        } else {
+                            int split = line.indexOf(' ');
+                            scores.put(UUID.fromString(line.substring(1, split)), Score.fromString(line.substring(split + 1)));
+                        }
+                    } catch (RuntimeException ex) { // a partially written line, e.g. after a crash
+                        IP.logging().warning("Skipping invalid change in leaderboard changes of %s: %s".formatted(mode, line));
+                    }
+
+                    entries++;
+                }
+            } catch (IOException ex) {
+                IP.logging().severe("Error while trying to read leaderboard changes of %s".formatted(mode) + ex);
+            }
         }
+
+        changes.put(mode.toLowerCase(), entries);
     }
 
     @Override
-    public void writeScores(@NotNull String mode, @NotNull Map<UUID, Score> scores) {
-        LeaderboardContainer container = new LeaderboardContainer();
-        scores.forEach((uuid, score) -> container.serialized.put(uuid, score.toString()));
+    public boolean writeScores(@NotNull String mode, @NotNull Map<UUID, Score> scores, @NotNull Map<UUID, Score> changed, @NotNull Set<UUID> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return true;
+        }
+
+        Lock lock = getLock(mode).writeLock();
+        lock.lock();
 
-        File file = getLeaderboardFile(mode);
-        createFile(file);
+        try {
+            return writeChanges(mode, scores, changed, removed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean writeChanges(String mode, Map<UUID, Score> scores, Map<UUID, Score> changed, Set<UUID> removed) {
+        int entries = changes.getOrDefault(mode.toLowerCase(), 0) + changed.size() + removed.size();
+
+        // once the change log is larger than the leaderboard itself, rewrite the leaderboard instead
+        if (entries > Math.max(COMPACT_THRESHOLD, scores.size())) {
+            return compact(mode, scores);
+        }
+
+        File file = getChangesFile(mode);
+        file.getParentFile().mkdirs();
+
+        // appending can't be done atomically, but a partially written last line is skipped when reading
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // remove a partially written last line, so it isn't joined with the first appended line
+            channel.truncate(getCompleteLength(channel));
+            channel.position(channel.size());
+
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            for (Map.Entry<UUID, Score> entry : changed.entrySet()) {
+                writer.write(CHANGED + entry.getKey().toString() + " " + entry.getValue());
+                writer.newLine();
+            }
+            for (UUID uuid : removed) {
+                writer.write(REMOVED + uuid.toString());
+                writer.newLine();
+            }
 
-        try (FileWriter writer = new FileWriter(file)) {
-            IP.getGson().toJson(container, writer);
             writer.flush();
+            channel.force(true); // make sure the changes are on disk before they are considered written
+        } catch (IOException ex) {
+            IP.logging().severe("Error while trying to write to leaderboard changes of %s".formatted(mode) + ex);
+            return false;
+        }
+
+        changes.put(mode.toLowerCase(), entries);
+        return true;
+    }
+
+    // returns the length of a file up to and including its last line break, which excludes a partially written last line
+    private static long getCompleteLength(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+
+        while (end > 0) {
+            int length = (int) Math.min(buffer.capacity(), end);
+            long start = end - length;
+
+            buffer.clear().limit(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("File was truncated while reading");
+                }
+            }
+
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+
+            end = start;
+        }
+
+        return 0;
+    }
+
+    // rewrites the leaderboard file and clears the change log
+    private boolean compact(String mode, Map<UUID, Score> scores) {
+        LeaderboardContainer container = new LeaderboardContainer();
+        scores.forEach((uuid, score) -> container.serialized.put(uuid, score.toString()));
+
+        try {
+            writeAtomically(getLeaderboardFile(mode), writer -> IP.getGson().toJson(container, writer));
         } catch (IOException ex) {
             IP.logging().severe("Error while trying to write to leaderboard file %s".formatted(mode) + ex);
+            return false;
+        }
+
+        // replaying changes over the new file is harmless, so deleting afterwards is safe
+        getChangesFile(mode).delete();
+        changes.put(mode.toLowerCase(), 0);
+        return true;
+    }
+
+    @Override
+    public void deleteScores(@NotNull String mode) {
+        Lock lock = getLock(mode).writeLock();
+        lock.lock();
+
+        try {
+            getLeaderboardFile(mode).delete();
+            getChangesFile(mode).delete();
+            changes.remove(mode.toLowerCase());
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -80,69 +262,127 @@ public final class StorageDisk implements Storage {
         return IP.getInFolder("leaderboards/%s.json".formatted(mode.toLowerCase()));
     }
 
+    private File getChangesFile(String mode) {
+        return IP.getInFolder("leaderboards/%s.changes".formatted(mode.toLowerCase()));
+    }
+
     public static class LeaderboardContainer {
         @Expose
         public final Map<UUID, String> serialized = new LinkedHashMap<>();
     }
 
     @Override
-    public void readPlayer(@NotNull ParkourPlayer player) {
-        if (!getPlayerFile(player).exists()) {
-            player.setSettings(new HashMap<>());
-            return;
-        }
+    public @NotNull Map<String, Object> readPlayer(@NotNull UUID uuid) {
+        File file = getPlayerFile(uuid);
+        Lock lock = getLock(uuid.toString()).readLock();
+        lock.lock();
 
-        try (FileReader reader = new FileReader(getPlayerFile(player))) {
+        try (FileReader reader = new FileReader(file, StandardCharsets.UTF_8)) {
             ParkourPlayer from = IP.getGson().fromJson(reader, ParkourPlayer.class);
 
-            Map<String, Object> settings = new HashMap<>();
-
-            settings.put("style", from.style);
-            settings.put("blockLead", from.blockLead);
-            settings.put("useParticles", from.particles);
-            settings.put("useSpecial", from.useSpecialBlocks);
-            settings.put("showFallMsg", from.showFallMessage);
-            settings.put("showScoreboard", from.showScoreboard);
-            settings.put("selectedTime", from.selectedTime);
-            settings.put("collectedRewards", from.collectedRewards);
-            settings.put("locale", from._locale);
-            settings.put("schematicDifficulty", from.schematicDifficulty);
-            settings.put("sound", from.sound);
-
-            player.setSettings(settings);
+            if (from == null) {
+                return new HashMap<>();
+            }
+
+            return toSettings(from);
+        } catch (FileNotFoundException ex) {
+            return new HashMap<>();
         } catch (IOException ex) {
-            IP.logging().severe("Error while trying to read disk data of %s".formatted(player.getName()) + ex);
+            IP.logging().severe("Error while trying to read disk data of %s".formatted(uuid) + ex);
+            return new HashMap<>();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void writePlayer(@NotNull ParkourPlayer player) {
-        File file = getPlayerFile(player);
+        write(player);
+    }
 
-        createFile(file);
+    @Override
+    public @NotNull Collection<ParkourPlayer> writePlayers(@NotNull Collection<ParkourPlayer> players) {
+        List<ParkourPlayer> failed = new ArrayList<>();
 
-        try (FileWriter writer = new FileWriter(file)) {
-            IP.getGson().toJson(player, writer);
-            writer.flush();
+        for (ParkourPlayer player : players) {
+            if (!write(player)) {
+                failed.add(player);
+            }
+        }
+
+        return failed;
+    }
+
+    // returns true when the data of player has been written
+    private boolean write(ParkourPlayer player) {
+        File file = getPlayerFile(player.getUUID());
+        Lock lock = getLock(player.getUUID().toString()).writeLock();
+        lock.lock();
+
+        try {
+            writeAtomically(file, writer -> IP.getGson().toJson(player, writer));
+            return true;
         } catch (IOException ex) {
             IP.logging().severe("Error while trying to write disk data of %s to file %s".formatted(player.getName(), file) + ex);
+            return false;
+        } finally {
+            lock.unlock();
         }
     }
 
-    private void createFile(File file) {
-        if (file.exists()) {
-            return;
+    // returns the settings of a player read from json, as used by ParkourPlayer#setSettings
+    static Map<String, Object> toSettings(ParkourPlayer from) {
+        Map<String, Object> settings = new HashMap<>();
+
+        settings.put("style", from.style);
+        settings.put("blockLead", from.blockLead);
+        settings.put("useParticles", from.particles);
+        settings.put("useSpecial", from.useSpecialBlocks);
+        settings.put("showFallMsg", from.showFallMessage);
+        settings.put("showScoreboard", from.showScoreboard);
+        settings.put("selectedTime", from.selectedTime);
+        settings.put("collectedRewards", from.collectedRewards);
+        settings.put("locale", from._locale);
+        settings.put("schematicDifficulty", from.schematicDifficulty);
+        settings.put("sound", from.sound);
+
+        return settings;
+    }
+
+    // writes to a temporary file which then replaces file, so file is either completely written or unchanged
+    private void writeAtomically(File file, Writing writing) throws IOException {
+        file.getParentFile().mkdirs();
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try (FileOutputStream stream = new FileOutputStream(temp);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+            writing.write(writer);
+
+            writer.flush();
+            stream.getFD().sync(); // make sure the data is on disk before it replaces the old version
         }
 
         try {
-            file.getParentFile().mkdirs();
-            file.createNewFile();
-        } catch (IOException ex) {
-            IP.logging().severe("Error while trying to create file %s".formatted(file) + ex);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
-    private File getPlayerFile(ParkourPlayer player) {
-        return IP.getInFolder("players/%s.json".formatted(player.getUUID()));
+    // returns the lock of the files of key, which is a mode or uuid
+    private ReadWriteLock getLock(String key) {
+        return locks[Math.floorMod(key.toLowerCase().hashCode(), locks.length)];
+    }
+
+    @FunctionalInterface
+    private interface Writing {
+
+        void write(Writer writer) throws IOException;
+
+    }
+
+    private File getPlayerFile(UUID uuid) {
+        return IP.getInFolder("players/%s.json".formatted(uuid));
     }
 }
\ No newline at end of file
@@ -0,0 +1,666 @@
+package dev.efnilite.ip.storage;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.leaderboard.Score;
+import dev.efnilite.ip.player.ParkourPlayer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Log-structured local storage manager.</p>
+ * <p>Every change is appended as a record to a segment file in the storage folder, so nothing is ever rewritten in place.
+ * Scores are kept in memory, as leaderboards always read all of them. Player settings are only indexed by the position of
+ * their latest record and read from disk when needed.</p>
+ * <p>Once enough has been appended, all live records are compacted into a snapshot in the background, after which the
+ * segments it covers are deleted. On startup, the snapshot is loaded and the segments after it are replayed in order.
+ * When the storage folder is empty, the json files of {@link StorageDisk} are migrated. A marker file is kept while
+ * migrating, so a migration that was interrupted is started over on the next startup.</p>
+ *
+ * @since 5.1.0
+ */
+public final class StorageLog implements Storage {
+
+    /**
+     * The maximum size in bytes of a segment before a new one is started.
+     */
+    private static final long SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The minimum amount of bytes appended since the last snapshot before compacting.
+     */
+    private static final long COMPACT_THRESHOLD = 8 * 1024 * 1024;
+
+    private static final int MAGIC = 0x4950534E; // IPSN
+
+    /**
+     * The segment id of the snapshot, which comes before all segments.
+     */
+    private static final int SNAPSHOT = -1;
+
+    private static final byte SCORE = 1;
+    private static final byte REMOVE = 2;
+    private static final byte DELETE = 3;
+    private static final byte PLAYER = 4;
+
+    private final File folder = IP.getInFolder("storage");
+    private final File snapshotFile = new File(folder, "snapshot.log");
+
+    /**
+     * Exists while json storage is being migrated.
+     */
+    private final File migratingFile = new File(folder, "migrating");
+
+    /**
+     * Guards all state below. Appends happen in order while holding this.
+     */
+    private final Object lock = new Object();
+
+    private final Map<String, Map<UUID, Score>> scores = new HashMap<>();
+
+    /**
+     * The position of the latest record of every player, see {@link #pointer(int, long)}.
+     */
+    private final Map<UUID, Long> players = new HashMap<>();
+
+    /**
+     * All segments by id, including the snapshot.
+     */
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    private Segment active;
+
+    /**
+     * The amount of bytes appended since the last snapshot.
+     */
+    private long appended;
+
+    /**
+     * The size of the last snapshot.
+     */
+    private long compacted;
+
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "IP storage compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StorageLog() {
+        folder.mkdirs();
+
+        try {
+            load();
+        } catch (IOException ex) {
+            IP.logging().severe("Error while trying to load storage" + ex);
+        }
+    }
+
+    // loads the snapshot and replays all segments after it
+    private void load() throws IOException {
+        int covered = SNAPSHOT;
+
+        if (snapshotFile.exists()) {
+            Segment snapshot = new Segment(SNAPSHOT, snapshotFile);
+
+            try (DataInputStream in = new DataInputStream(new FileInputStream(snapshotFile))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Invalid snapshot file");
+                }
+                covered = in.readInt();
+            }
+
+            replay(snapshot, 8);
+            segments.put(SNAPSHOT, snapshot);
+            compacted = snapshot.size;
+        }
+
+        File[] files = folder.listFiles((dir, name) -> name.startsWith("segment-") && name.endsWith(".log"));
+        List<Integer> ids = new ArrayList<>();
+
+        for (File file : files == null ? new File[0] : files) {
+            ids.add(Integer.parseInt(file.getName().substring("segment-".length(), file.getName().length() - ".log".length())));
+        }
+        Collections.sort(ids);
+
+        for (int id : ids) {
+            // left over from a compaction that was interrupted after writing the snapshot
+            if (id <= covered) {
+                getSegmentFile(id).delete();
+                continue;
+            }
+
+            Segment segment = new Segment(id, getSegmentFile(id));
+            replay(segment, 0);
+            segments.put(id, segment);
+            appended += segment.size;
+        }
+
+        boolean empty = segments.isEmpty();
+
+        active = segments.isEmpty() || segments.lastKey() == SNAPSHOT
+                ? new Segment(covered + 1, getSegmentFile(covered + 1))
+                : segments.lastEntry().getValue();
+        segments.put(active.id, active);
+
+        // migrating again only overwrites records with the same data, as nothing else is written before it completes
+        if (empty || migratingFile.exists()) {
+            migrate();
+        }
+    }
+
+    // applies all valid records in a segment, and cuts off a partially written tail
+    private void replay(Segment segment, long start) throws IOException {
+        long position = start;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file)))) {
+            in.skipNBytes(start);
+
+            while (position + 4 <= segment.size) {
+                int length = in.readInt();
+
+                if (length <= 0 || position + 8 + length > segment.size) {
+                    break;
+                }
+
+                byte[] body = in.readNBytes(length);
+                int crc = in.readInt();
+
+                if (crc != crc(body)) {
+                    break;
+                }
+
+                apply(body, pointer(segment.id, position));
+                position += 8 + length;
+            }
+        }
+
+        if (position < segment.size) {
+            IP.logging().warning("Skipping %d invalid bytes at the end of %s".formatted(segment.size - position, segment.file.getName()));
+
+            segment.channel.truncate(position);
+            segment.size = position;
+        }
+    }
+
+    private void apply(byte[] body, long pointer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+
+        switch (in.readByte()) {
+            case SCORE -> scores.computeIfAbsent(in.readUTF(), mode -> new HashMap<>())
+                    .put(new UUID(in.readLong(), in.readLong()), Score.fromString(in.readUTF()));
+            case REMOVE -> {
+                Map<UUID, Score> mode = scores.get(in.readUTF());
+
+                if (mode != null) {
+                    mode.remove(new UUID(in.readLong(), in.readLong()));
+                }
+            }
+            case DELETE -> scores.remove(in.readUTF());
+            case PLAYER -> players.put(new UUID(in.readLong(), in.readLong()), pointer);
+            default -> throw new IOException("Unknown record type");
+        }
+    }
+
+    // imports all leaderboards and players stored as json
+    private void migrate() throws IOException {
+        File[] leaderboards = IP.getInFolder("leaderboards").listFiles((dir, name) -> name.endsWith(".json") || name.endsWith(".changes"));
+        File[] players = IP.getInFolder("players").listFiles((dir, name) -> name.endsWith(".json"));
+
+        if ((leaderboards == null || leaderboards.length == 0) && (players == null || players.length == 0)) {
+            return;
+        }
+
+        IP.logging().info("Migrating json storage, this may take a while");
+
+        if (!migratingFile.exists() && !migratingFile.createNewFile()) {
+            throw new IOException("Could not create migration marker");
+        }
+
+        StorageDisk disk = new StorageDisk();
+        Set<String> modes = new HashSet<>();
+
+        for (File file : leaderboards == null ? new File[0] : leaderboards) {
+            modes.add(file.getName().substring(0, file.getName().lastIndexOf('.')));
+        }
+
+        for (String mode : modes) {
+            Map<UUID, Score> read = disk.readScores(mode);
+
+            writeScores(mode, read, read, Set.of());
+        }
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        List<UUID> uuids = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+
+        for (File file : players == null ? new File[0] : players) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(file.getName().substring(0, file.getName().length() - ".json".length()));
+            } catch (IllegalArgumentException ex) {
+                continue;
+            }
+
+            offsets.add(records.size());
+            uuids.add(uuid);
+            records.write(player(uuid, Files.readString(file.toPath(), StandardCharsets.UTF_8)));
+
+            // keep batches small
+            if (records.size() > 1024 * 1024) {
+                appendPlayers(records, uuids, offsets);
+            }
+        }
+        appendPlayers(records, uuids, offsets);
+
+        // everything has been appended and forced to disk
+        if (!migratingFile.delete()) {
+            throw new IOException("Could not remove migration marker");
+        }
+
+        IP.logging().info("Migrated %d leaderboards and %d players from json storage".formatted(modes.size(), players == null ? 0 : players.length));
+    }
+
+    private void appendPlayers(ByteArrayOutputStream records, List<UUID> uuids, List<Integer> offsets) throws IOException {
+        if (uuids.isEmpty()) {
+            return;
+        }
+
+        synchronized (lock) {
+            long start = append(records.toByteArray());
+
+            for (int i = 0; i < uuids.size(); i++) {
+                players.put(uuids.get(i), start + offsets.get(i));
+            }
+        }
+
+        records.reset();
+        uuids.clear();
+        offsets.clear();
+    }
+
+    @Override
+    public void init(String mode) {
+        // nothing to see here...
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdown();
+
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (lock) {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+        }
+    }
+
+    @Override
+    public @NotNull Map<UUID, Score> readScores(@NotNull String mode) {
+        synchronized (lock) {
+            return new HashMap<>(scores.getOrDefault(mode.toLowerCase(), Map.of()));
+        }
+    }
+
+    @Override
+    public boolean writeScores(@NotNull String mode, @NotNull Map<UUID, Score> scores, @NotNull Map<UUID, Score> changed, @NotNull Set<UUID> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return true;
+        }
+
+        String key = mode.toLowerCase();
+
+        try {
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+            for (Map.Entry<UUID, Score> entry : changed.entrySet()) {
+                records.write(record(SCORE, out -> {
+                    out.writeUTF(key);
+                    writeUUID(out, entry.getKey());
+                    out.writeUTF(entry.getValue().toString());
+                }));
+            }
+            for (UUID uuid : removed) {
+                records.write(record(REMOVE, out -> {
+                    out.writeUTF(key);
+                    writeUUID(out, uuid);
+                }));
+            }
+
+            synchronized (lock) {
+                append(records.toByteArray());
+
+                Map<UUID, Score> current = this.scores.computeIfAbsent(key, k -> new HashMap<>());
+                current.putAll(changed);
+                removed.forEach(current::remove);
+            }
+
+            return true;
+        } catch (IOException ex) {
+            IP.logging().severe("Error while trying to write scores of %s".formatted(mode) + ex);
+            return false;
+        }
+    }
+
+    @Override
+    public void deleteScores(@NotNull String mode) {
+        String key = mode.toLowerCase();
+
+        try {
+            byte[] record = record(DELETE, out -> out.writeUTF(key));
+
+            synchronized (lock) {
+                append(record);
+                scores.remove(key);
+            }
+        } catch (IOException ex) {
+            IP.logging().severe("Error while trying to delete scores of %s".formatted(mode) + ex);
+        }
+    }
+
+    @Override
+    public @NotNull Map<String, Object> readPlayer(@NotNull UUID uuid) {
+        byte[] body;
+
+        synchronized (lock) {
+            Long pointer = players.get(uuid);
+
+            if (pointer == null) {
+                return new HashMap<>();
+            }
+
+            try {
+                body = segments.get(segment(pointer)).read(offset(pointer));
+            } catch (IOException ex) {
+                IP.logging().severe("Error while trying to read data of %s".formatted(uuid) + ex);
+                return new HashMap<>();
+            }
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            in.skipNBytes(1 + 16); // type and uuid
+
+            ParkourPlayer from = IP.getGson().fromJson(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8), ParkourPlayer.class);
+
+            return from == null ? new HashMap<>() : StorageDisk.toSettings(from);
+        } catch (IOException ex) {
+            IP.logging().severe("Error while trying to read data of %s".formatted(uuid) + ex);
+            return new HashMap<>();
+        }
+    }
+
+    @Override
+    public void writePlayer(@NotNull ParkourPlayer player) {
+        writePlayers(List.of(player));
+    }
+
+    @Override
+    public @NotNull Collection<ParkourPlayer> writePlayers(@NotNull Collection<ParkourPlayer> players) {
+        if (players.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            List<UUID> uuids = new ArrayList<>(players.size());
+            List<Integer> offsets = new ArrayList<>(players.size());
+
+            for (ParkourPlayer player : players) {
+                offsets.add(records.size());
+                uuids.add(player.getUUID());
+                records.write(player(player.getUUID(), IP.getGson().toJson(player)));
+            }
+
+            appendPlayers(records, uuids, offsets);
+
+            return List.of();
+        } catch (IOException ex) {
+            IP.logging().severe("Error while trying to write data of %d players".formatted(players.size()) + ex);
+            return players;
+        }
+    }
+
+    // appends records to the active segment and returns the pointer to the first one. Hold lock.
+    private long append(byte[] records) throws IOException {
+        if (active.size > 0 && active.size + records.length > SEGMENT_SIZE) {
+            roll();
+        }
+
+        long start = active.size;
+        active.write(records);
+        active.channel.force(false);
+
+        appended += records.length;
+        if (appended > Math.max(COMPACT_THRESHOLD, compacted) && compacting.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+
+        return pointer(active.id, start);
+    }
+
+    // starts a new segment. Hold lock.
+    private void roll() throws IOException {
+        active.channel.force(true);
+
+        active = new Segment(active.id + 1, getSegmentFile(active.id + 1));
+        segments.put(active.id, active);
+    }
+
+    // writes all live records to a new snapshot, which replaces all segments before the active one
+    private void compact() {
+        try {
+            Map<String, Map<UUID, Score>> scores = new HashMap<>();
+            Map<UUID, Long> players;
+            Map<Integer, Segment> sources;
+            int covered;
+
+            synchronized (lock) {
+                roll();
+
+                covered = active.id - 1;
+                this.scores.forEach((mode, values) -> scores.put(mode, new HashMap<>(values)));
+                players = new HashMap<>(this.players);
+                sources = new HashMap<>(segments.headMap(active.id));
+                appended = 0;
+            }
+
+            // sources are no longer written to, and are only closed by compaction
+            File temp = new File(folder, "snapshot.tmp");
+            Map<UUID, Long> moved = new HashMap<>();
+
+            try (FileOutputStream stream = new FileOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeInt(covered);
+
+                for (Map.Entry<String, Map<UUID, Score>> mode : scores.entrySet()) {
+                    for (Map.Entry<UUID, Score> entry : mode.getValue().entrySet()) {
+                        out.write(record(SCORE, record -> {
+                            record.writeUTF(mode.getKey());
+                            writeUUID(record, entry.getKey());
+                            record.writeUTF(entry.getValue().toString());
+                        }));
+                    }
+                }
+
+                for (Map.Entry<UUID, Long> entry : players.entrySet()) {
+                    byte[] body = sources.get(segment(entry.getValue())).read(offset(entry.getValue()));
+
+                    moved.put(entry.getKey(), pointer(SNAPSHOT, out.size()));
+                    out.write(frame(body));
+                }
+
+                out.flush();
+                stream.getFD().sync();
+            }
+
+            synchronized (lock) {
+                Segment previous = segments.remove(SNAPSHOT);
+                if (previous != null) {
+                    previous.close();
+                }
+
+                try {
+                    Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                Segment snapshot = new Segment(SNAPSHOT, snapshotFile);
+                segments.put(SNAPSHOT, snapshot);
+                compacted = snapshot.size;
+
+                // players that were written during compaction already point to a newer record
+                moved.forEach((uuid, pointer) -> this.players.replace(uuid, players.get(uuid), pointer));
+
+                for (Segment source : sources.values()) {
+                    if (source.id != SNAPSHOT) {
+                        segments.remove(source.id);
+                        source.close();
+                        source.file.delete();
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            IP.logging().severe("Error while trying to compact storage" + ex);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private File getSegmentFile(int id) {
+        return new File(folder, "segment-%d.log".formatted(id));
+    }
+
+    private static byte[] player(UUID uuid, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        return record(PLAYER, out -> {
+            writeUUID(out, uuid);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        });
+    }
+
+    private static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    // returns a complete record: its length, the type and payload, and a checksum
+    private static byte[] record(byte type, Payload payload) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+
+        out.writeByte(type);
+        payload.write(out);
+
+        return frame(body.toByteArray());
+    }
+
+    private static byte[] frame(byte[] body) {
+        return ByteBuffer.allocate(8 + body.length)
+                .putInt(body.length)
+                .put(body)
+                .putInt(crc(body))
+                .array();
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static long pointer(int segment, long offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int segment(long pointer) {
+        return (int) (pointer >> 32);
+    }
+
+    private static long offset(long pointer) {
+        return pointer & 0xFFFFFFFFL;
+    }
+
+    @FunctionalInterface
+    private interface Payload {
+
+        void write(DataOutputStream out) throws IOException;
+
+    }
+
+    // a file that records are appended to
+    private static final class Segment {
+
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+
+        private Segment(int id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        private void write(byte[] records) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+
+            while (buffer.hasRemaining()) {
+                size += channel.write(buffer, size);
+            }
+        }
+
+        // returns the type and payload of the record at offset
+        private byte[] read(long offset) throws IOException {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            fill(length, offset);
+
+            ByteBuffer body = ByteBuffer.allocate(length.getInt(0));
+            fill(body, offset + 4);
+
+            return body.array();
+        }
+
+        private void fill(ByteBuffer buffer, long offset) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of %s".formatted(file.getName()));
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+
+            }
+        }
+    }
+}
@@ -8,26 +8,114 @@ import dev.efnilite.vilib.util.Colls;
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.*;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * MySQL storage manager.
+ * <p>MySQL storage manager. Other databases are supported through {@link Dialect}, see {@link StorageSQLite}.</p>
+ * <p>Every score row has the time it was last updated at in millis. Removed scores are kept as deleted rows,
+ * so servers that only read can fetch just the rows that changed since their last read.
+ * Deleted rows are purged once they are older than {@link #TOMBSTONE_HORIZON}. Servers whose last read is older than that
+ * read everything again, since they may have missed a removal.</p>
+ * <p>Connections are pooled, see {@link ConnectionPool}. All queries with values are prepared once per connection
+ * and reused.</p>
  *
  * @since 5.0.0
  */
-public final class StorageSQL implements Storage {
+public class StorageSQL implements Storage {
 
-    private Connection connection;
+    /**
+     * How far back in millis incremental reads look before the previous version,
+     * to catch rows from writers with a slightly different clock or transactions that committed late.
+     */
+    private static final long SYNC_OVERLAP = 60_000;
+
+    /**
+     * How long in millis deleted rows are kept, far longer than {@link #SYNC_OVERLAP} and the usual time between reads.
+     */
+    private static final long TOMBSTONE_HORIZON = 7 * 24 * 60 * 60 * 1000L;
+
+    /**
+     * The minimum time in millis between purges of deleted rows of a mode.
+     */
+    private static final long PURGE_INTERVAL = 60 * 60 * 1000L;
+
+    private static final String OPTIONS = "%soptions";
+
+    private final ConnectionPool pool;
+    private final Dialect dialect;
+    private final Map<String, Long> purged = new ConcurrentHashMap<>();
 
     public StorageSQL() {
-        connect();
+        dialect = Dialect.MYSQL;
+
+        IP.logging().info("Connecting to MySQL");
+
+        String parameters = "?allowPublicKeyRetrieval=true" + "&useSSL=false" + "&useUnicode=true" + "&characterEncoding=utf-8" +
+                "&rewriteBatchedStatements=true" + "&cachePrepStmts=true" + "&useServerPrepStmts=true";
+        String server = "jdbc:mysql://" + Option.SQL_URL + ":" + Option.SQL_PORT + "/";
+
+        pool = new ConnectionPool(server + Option.SQL_DB + parameters, Option.SQL_USERNAME, Option.SQL_PASSWORD, Option.SQL_POOL_SIZE);
+
+        try {
+            try { // load drivers
+                Class.forName("com.mysql.cj.jdbc.Driver"); // for newer versions
+            } catch (ClassNotFoundException old) {
+                Class.forName("com.mysql.jdbc.Driver"); // for older versions
+            }
+
+            // the database has to exist before pooled connections can use it
+            try (Connection connection = DriverManager.getConnection(server + parameters, Option.SQL_USERNAME, Option.SQL_PASSWORD);
+                 Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE DATABASE IF NOT EXISTS `%s`;".formatted(Option.SQL_DB));
+            }
+
+            migrate();
+
+            IP.logging().info("Connected to MySQL");
+        } catch (Exception ex) {
+            IP.logging().severe("Could not connect to MySQL");
+            Bukkit.getPluginManager().disablePlugin(IP.getPlugin()); // disable plugin since data handling without db will go horribly wrong
+        }
+    }
+
+    /**
+     * Creates a storage manager for any database that understands MySQL syntax, e.g. an embedded database in MySQL mode.
+     *
+     * @param url      The jdbc url, including the database.
+     * @param username The username.
+     * @param password The password.
+     * @param size     The maximum amount of open connections.
+     */
+    public StorageSQL(@NotNull String url, String username, String password, int size) {
+        this(new ConnectionPool(url, username, password, size), Dialect.MYSQL);
+    }
+
+    StorageSQL(ConnectionPool pool, Dialect dialect) {
+        this.pool = pool;
+        this.dialect = dialect;
+
+        migrate();
     }
 
     @Override
     public void init(String mode) {
+        String table = getTableName(mode);
+
         sendUpdate("""
                 CREATE TABLE IF NOT EXISTS `%s`
                 (
@@ -35,223 +123,390 @@ public final class StorageSQL implements Storage {
                     name       VARCHAR(16),
                     time       VARCHAR(16),
                     difficulty VARCHAR(3),
-                    score      INT
-                )
-                CHARSET = utf8 ENGINE = InnoDB;
+                    score      INT,
+                    updated_at BIGINT   NOT NULL DEFAULT 0,
+                    deleted    BOOLEAN  NOT NULL DEFAULT FALSE
+                ) %s;
                 """
-                .formatted(getTableName(mode)));
+                .formatted(table, dialect.tableOptions));
+
+        // 5.1.0
+        sendUpdateSuppressed("ALTER TABLE `%s` ADD `updated_at` BIGINT NOT NULL DEFAULT 0;".formatted(table));
+        sendUpdateSuppressed("ALTER TABLE `%s` ADD `deleted` BOOLEAN NOT NULL DEFAULT FALSE;".formatted(table));
+        sendUpdateSuppressed("CREATE INDEX `%s-updated_at` ON `%s` (updated_at);".formatted(table, table));
+        sendUpdateSuppressed("CREATE INDEX `%s-score` ON `%s` (score);".formatted(table, table));
     }
 
     @Override
     public void close() {
-        try {
-            connection.close();
-            IP.logging().info("Closed connection to MySQL");
-        } catch (SQLException ex) {
-            IP.logging().severe("Error while trying to close connection to SQL database" + ex);
-        }
+        pool.close();
+        IP.logging().info("Closed connection to database");
     }
 
     @Override
     public @NotNull Map<UUID, Score> readScores(@NotNull String mode) {
-        try (ResultSet results = sendQuery(
-                """
-                        SELECT * FROM `%s`;
-                        """
-                        .formatted(getTableName(mode)))) {
+        return readScores(mode, 0).changed();
+    }
 
-            if (results == null) {
-                return new HashMap<>();
-            }
+    @Override
+    public @NotNull ScoreChanges readScores(@NotNull String mode, long since) {
+        // deleted rows after since may have been purged already
+        boolean full = since <= 0 || System.currentTimeMillis() - since > TOMBSTONE_HORIZON - SYNC_OVERLAP;
+        String sql = full
+                ? "SELECT uuid, name, time, difficulty, score, updated_at, deleted FROM `%s` WHERE deleted = FALSE;"
+                : "SELECT uuid, name, time, difficulty, score, updated_at, deleted FROM `%s` WHERE updated_at > ?;";
 
-            Map<UUID, Score> scores = new HashMap<>();
+        try {
+            return pool.use(connection -> {
+                PreparedStatement statement = connection.prepare(sql.formatted(getTableName(mode)));
 
-            while (results.next()) { // advance row
-                scores.put(UUID.fromString(results.getString("uuid")), new Score(
-                        results.getString("name"),
-                        results.getString("time"),
-                        results.getString("difficulty"),
-                        results.getInt("score")));
-            }
+                if (!full) {
+                    statement.setLong(1, since - SYNC_OVERLAP);
+                }
+
+                Map<UUID, Score> changed = new HashMap<>();
+                Set<UUID> removed = new HashSet<>();
+                long version = Math.max(since, 0);
+
+                try (ResultSet results = statement.executeQuery()) {
+                    while (results.next()) { // advance row
+                        UUID uuid = UUID.fromString(results.getString("uuid"));
+                        version = Math.max(version, results.getLong("updated_at"));
+
+                        if (results.getBoolean("deleted")) {
+                            removed.add(uuid);
+                            continue;
+                        }
+
+                        changed.put(uuid, new Score(
+                                results.getString("name"),
+                                Score.parseTime(results.getString("time")),
+                                Score.parseDifficulty(results.getString("difficulty")),
+                                results.getInt("score")));
+                    }
+                }
 
-            return scores;
+                return new ScoreChanges(full, changed, removed, version);
+            });
         } catch (SQLException ex) {
             IP.logging().severe("Error while trying to read SQL data of %s".formatted(mode) + ex);
-            return new HashMap<>();
+            return new ScoreChanges(false, Map.of(), Set.of(), since);
         }
     }
 
     @Override
-    public void writeScores(@NotNull String mode, @NotNull Map<UUID, Score> scores) {
-        scores.forEach((uuid, score) -> sendUpdate(
-                """
+    public boolean writeScores(@NotNull String mode, @NotNull Map<UUID, Score> scores, @NotNull Map<UUID, Score> changed, @NotNull Set<UUID> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return true;
+        }
+
+        String table = getTableName(mode);
+
+        try {
+            pool.use(connection -> transaction(connection, () -> {
+                PreparedStatement upsert = connection.prepare("""
                         INSERT INTO `%s`
-                            (uuid, name, time, difficulty, score)
-                        VALUES ('%s', '%s', '%s', '%s', %d)
-                        ON DUPLICATE KEY UPDATE name       = '%s',
-                                                time       = '%s',
-                                                difficulty = '%s',
-                                                score      = %d;
-                        """
-                        .formatted(getTableName(mode), uuid.toString(), score.name(), score.time(), score.difficulty(), score.score(),
-                                score.name(), score.time(), score.difficulty(), score.score())));
+                            (uuid, name, time, difficulty, score, updated_at, deleted)
+                        VALUES (?, ?, ?, ?, ?, ?, FALSE)
+                        %s;
+                        """.formatted(table, dialect.upsert("name", "time", "difficulty", "score", "updated_at", "deleted")));
+                PreparedStatement delete = connection.prepare("""
+                        UPDATE `%s` SET deleted = TRUE, updated_at = ? WHERE uuid = ?;
+                        """.formatted(table));
+
+                long now = System.currentTimeMillis();
+
+                for (Map.Entry<UUID, Score> entry : changed.entrySet()) {
+                    Score score = entry.getValue();
+
+                    upsert.setString(1, entry.getKey().toString());
+                    upsert.setString(2, score.name());
+                    upsert.setString(3, score.formatTime());
+                    upsert.setString(4, score.formatDifficulty());
+                    upsert.setInt(5, score.score());
+                    upsert.setLong(6, now);
+                    upsert.addBatch();
+                }
+
+                for (UUID uuid : removed) {
+                    delete.setLong(1, now);
+                    delete.setString(2, uuid.toString());
+                    delete.addBatch();
+                }
+
+                upsert.executeBatch();
+                delete.executeBatch();
+            }));
+
+            purge(mode);
+
+            return true;
+        } catch (SQLException ex) {
+            IP.logging().severe("Error while trying to write SQL data of %s".formatted(mode) + ex);
+            return false;
+        }
     }
 
-    // returns leaderboard table name
-    private String getTableName(String mode) {
-        return "%sleaderboard-%s".formatted(Option.SQL_PREFIX, mode);
+    // removes deleted rows older than the horizon, at most once every purge interval per mode
+    private void purge(String mode) {
+        long now = System.currentTimeMillis();
+        Long last = purged.get(mode);
+
+        if (last != null && now - last < PURGE_INTERVAL) {
+            return;
+        }
+
+        purged.put(mode, now);
+
+        try {
+            pool.use(connection -> {
+                PreparedStatement statement = connection.prepare("DELETE FROM `%s` WHERE deleted = TRUE AND updated_at < ?;"
+                        .formatted(getTableName(mode)));
+
+                statement.setLong(1, now - TOMBSTONE_HORIZON);
+                return statement.executeUpdate();
+            });
+        } catch (SQLException ex) {
+            IP.logging().severe("Error while trying to purge deleted SQL data of %s".formatted(mode) + ex);
+        }
     }
 
     @Override
-    public void readPlayer(@NotNull ParkourPlayer player) {
-        try (ResultSet results = sendQuery(
-                """
-                        SELECT * FROM `%s` WHERE uuid = '%s';
-                        """
-                        .formatted("%soptions".formatted(Option.SQL_PREFIX), player.getUUID()))) {
+    public boolean exists(@NotNull String mode) {
+        try {
+            return pool.use(connection -> {
+                DatabaseMetaData metadata = connection.connection.getMetaData();
+                String escape = metadata.getSearchStringEscape();
+                String table = getTableName(mode).replace("_", escape + "_").replace("%", escape + "%");
 
-            if (results == null) {
-                player.setSettings(new HashMap<>());
-                return;
-            }
+                try (ResultSet results = metadata.getTables(connection.connection.getCatalog(), null, table, null)) {
+                    return results.next();
+                }
+            });
+        } catch (SQLException ex) {
+            IP.logging().severe("Error while trying to find SQL table of %s".formatted(mode) + ex);
+            return false;
+        }
+    }
 
-            boolean hasNext = results.next(); // move cursor
+    @Override
+    public void deleteScores(@NotNull String mode) {
+        sendUpdate("DROP TABLE IF EXISTS `%s`;".formatted(getTableName(mode)));
+    }
 
-            if (!hasNext) {
-                player.setSettings(new HashMap<>());
-                return;
-            }
+    // returns leaderboard table name
+    private String getTableName(String mode) {
+        return "%sleaderboard-%s".formatted(Option.SQL_PREFIX, mode);
+    }
 
-            Map<String, Object> settings = Colls.thread(ParkourPlayer.PLAYER_COLUMNS).mapv((key, value) -> {
-                try {
-                    return results.getObject(key);
-                } catch (SQLException ex) {
-                    IP.logging().severe("Error while trying to read SQL data of %s, option = %s".formatted(player.getName(), key) + ex);
-                    return null;
+    @Override
+    public @NotNull Map<String, Object> readPlayer(@NotNull UUID uuid) {
+        try {
+            return pool.use(connection -> {
+                PreparedStatement statement = connection.prepare("SELECT * FROM `%s` WHERE uuid = ?;".formatted(OPTIONS.formatted(Option.SQL_PREFIX)));
+                statement.setString(1, uuid.toString());
+
+                try (ResultSet results = statement.executeQuery()) {
+                    if (!results.next()) { // move cursor
+                        return new HashMap<>();
+                    }
+
+                    return Colls.thread(ParkourPlayer.PLAYER_COLUMNS).mapv((key, value) -> {
+                        try {
+                            return results.getObject(key);
+                        } catch (SQLException ex) {
+                            IP.logging().severe("Error while trying to read SQL data of %s, option = %s".formatted(uuid, key) + ex);
+                            return null;
+                        }
+                    }).get();
                 }
-            }).get();
-
-            player.setSettings(settings);
+            });
         } catch (SQLException ex) {
-            IP.logging().severe("Error while trying to read SQL data of %s".formatted(player.getName()) + ex);
+            IP.logging().severe("Error while trying to read SQL data of %s".formatted(uuid) + ex);
+            return new HashMap<>();
         }
     }
 
     @Override
     public void writePlayer(@NotNull ParkourPlayer player) {
-        sendUpdate("""
-                INSERT INTO `%s`
-                (uuid, style, blockLead, useParticles, useSpecial, showFallMsg, showScoreboard,
-                 selectedTime, collectedRewards, locale, schematicDifficulty, sound)
-                VALUES ('%s', '%s', %d, %b, %b, %b, %b, %d, '%s', '%s', %f, %b)
-                ON DUPLICATE KEY UPDATE style               = '%s',
-                                        blockLead           = %d,
-                                        useParticles        = %b,
-                                        useSpecial          = %b,
-                                        showFallMsg         = %b,
-                                        showScoreboard      = %b,
-                                        selectedTime        = %d,
-                                        collectedRewards    = '%s',
-                                        locale              = '%s',
-                                        schematicDifficulty = %f,
-                                        sound               = %b;
-                                        """
-                .formatted("%soptions".formatted(Option.SQL_PREFIX), player.getUUID(), player.style, player.blockLead,
-                        player.particles, player.useSpecialBlocks, player.showFallMessage,
-                        player.showScoreboard, player.selectedTime, String.join(",", player.collectedRewards), player,
-                        player.schematicDifficulty, player.sound,
-
-                        player.style, player.blockLead,
-                        player.particles, player.useSpecialBlocks, player.showFallMessage,
-                        player.showScoreboard, player.selectedTime, String.join(",", player.collectedRewards), player,
-                        player.schematicDifficulty, player.sound));
+        writePlayers(List.of(player));
     }
 
-    public void connect() {
-        try {
-            IP.logging().info("Connecting to MySQL");
-
-            try { // load drivers
-                Class.forName("com.mysql.cj.jdbc.Driver"); // for newer versions
-            } catch (ClassNotFoundException old) {
-                Class.forName("com.mysql.jdbc.Driver"); // for older versions
-            }
+    @Override
+    public @NotNull Collection<ParkourPlayer> writePlayers(@NotNull Collection<ParkourPlayer> players) {
+        if (players.isEmpty()) {
+            return List.of();
+        }
 
-            connection = DriverManager.getConnection("jdbc:mysql://" + Option.SQL_URL + ":" + Option.SQL_PORT + "/" + Option.SQL_DB +
-                    "?allowPublicKeyRetrieval=true" + "&useSSL=false" + "&useUnicode=true" + "&characterEncoding=utf-8" + "&autoReconnect=true" +
-                    "&maxReconnects=5", Option.SQL_USERNAME, Option.SQL_PASSWORD);
+        try {
+            pool.use(connection -> transaction(connection, () -> {
+                PreparedStatement statement = connection.prepare("""
+                        INSERT INTO `%s`
+                        (uuid, style, blockLead, useParticles, useSpecial, showFallMsg, showScoreboard,
+                         selectedTime, collectedRewards, locale, schematicDifficulty, sound)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                        %s;
+                        """.formatted(OPTIONS.formatted(Option.SQL_PREFIX), dialect.upsert("style", "blockLead", "useParticles", "useSpecial",
+                        "showFallMsg", "showScoreboard", "selectedTime", "collectedRewards", "locale", "schematicDifficulty", "sound")));
+
+                for (ParkourPlayer player : players) {
+                    statement.setString(1, player.getUUID().toString());
+                    statement.setString(2, player.style);
+                    statement.setObject(3, player.blockLead);
+                    statement.setObject(4, player.particles);
+                    statement.setObject(5, player.useSpecialBlocks);
+                    statement.setObject(6, player.showFallMessage);
+                    statement.setObject(7, player.showScoreboard);
+                    statement.setObject(8, player.selectedTime);
+                    statement.setString(9, String.join(",", player.collectedRewards));
+                    statement.setString(10, player._locale);
+                    statement.setObject(11, player.schematicDifficulty);
+                    statement.setObject(12, player.sound);
+                    statement.addBatch();
+                }
 
-            sendUpdate("CREATE DATABASE IF NOT EXISTS `%s`;".formatted(Option.SQL_DB));
-            sendUpdate("USE `" + Option.SQL_DB + "`;");
+                statement.executeBatch();
+            }));
 
-            sendUpdate("CREATE TABLE IF NOT EXISTS `" + Option.SQL_PREFIX + "options` " + "(`uuid` CHAR(36) NOT NULL, `time` VARCHAR(8), `style` VARCHAR(32), " + "`blockLead` INT, `useParticles` BOOLEAN, `useDifficulty` BOOLEAN, `useSpecial` BOOLEAN, " + "`showFallMsg` BOOLEAN, `showScoreboard` BOOLEAN, PRIMARY KEY (`uuid`)) ENGINE = InnoDB CHARSET = utf8;");
+            return List.of();
+        } catch (SQLException ex) {
+            IP.logging().severe("Error while trying to write SQL data of %d players".formatted(players.size()) + ex);
+            return players;
+        }
+    }
 
-            // v3.0.0
-            sendUpdateSuppressed("ALTER TABLE `" + Option.SQL_PREFIX + "options` DROP COLUMN `time`;");
-            sendUpdateSuppressed("ALTER TABLE `" + Option.SQL_PREFIX + "options` ADD `selectedTime` INT NOT NULL;");
+    // creates and updates the options table
+    private void migrate() {
+        // new tables get the latest columns, as not every database can add columns without a default
+        sendUpdate("""
+                CREATE TABLE IF NOT EXISTS `%soptions`
+                (
+                    uuid                CHAR(36) NOT NULL PRIMARY KEY,
+                    style               VARCHAR(32),
+                    blockLead           INT,
+                    useParticles        BOOLEAN,
+                    useSpecial          BOOLEAN,
+                    showFallMsg         BOOLEAN,
+                    showScoreboard      BOOLEAN,
+                    selectedTime        INT      NOT NULL,
+                    collectedRewards    MEDIUMTEXT,
+                    locale              VARCHAR(8),
+                    schematicDifficulty DOUBLE,
+                    sound               BOOLEAN
+                ) %s;
+                """
+                .formatted(Option.SQL_PREFIX, dialect.tableOptions));
 
-            // v3.1.0
-            sendUpdateSuppressed("ALTER TABLE `" + Option.SQL_PREFIX + "options` ADD `collectedRewards` MEDIUMTEXT;");
+        // v3.0.0
+        sendUpdateSuppressed("ALTER TABLE `" + Option.SQL_PREFIX + "options` DROP COLUMN `time`;");
+        sendUpdateSuppressed("ALTER TABLE `" + Option.SQL_PREFIX + "options` ADD `selectedTime` INT NOT NULL;");
 
-            // v3.6.0
-            sendUpdateSuppressed("ALTER TABLE `%s` ADD `locale` VARCHAR(8);".formatted(Option.SQL_PREFIX + "options"));
-            sendUpdateSuppressed("ALTER TABLE `%s` ADD `schematicDifficulty` DOUBLE;".formatted(Option.SQL_PREFIX + "options"));
+        // v3.1.0
+        sendUpdateSuppressed("ALTER TABLE `" + Option.SQL_PREFIX + "options` ADD `collectedRewards` MEDIUMTEXT;");
 
-            // v4.0.0
-            sendUpdateSuppressed("ALTER TABLE `%s` ADD `sound` BOOLEAN;".formatted(Option.SQL_PREFIX + "options"));
+        // v3.6.0
+        sendUpdateSuppressed("ALTER TABLE `%s` ADD `locale` VARCHAR(8);".formatted(Option.SQL_PREFIX + "options"));
+        sendUpdateSuppressed("ALTER TABLE `%s` ADD `schematicDifficulty` DOUBLE;".formatted(Option.SQL_PREFIX + "options"));
 
-            // 5.0.0
-            sendUpdateSuppressed("ALTER TABLE `%soptions` DROP COLUMN `useDifficulty`;".formatted(Option.SQL_PREFIX));
-            sendUpdateSuppressed("ALTER TABLE `%soptions` DROP COLUMN `useStructure`;".formatted(Option.SQL_PREFIX));
+        // v4.0.0
+        sendUpdateSuppressed("ALTER TABLE `%s` ADD `sound` BOOLEAN;".formatted(Option.SQL_PREFIX + "options"));
 
-            IP.logging().info("Connected to MySQL");
-        } catch (Exception ex) {
-            IP.logging().severe("Could not connect to MySQL");
-            Bukkit.getPluginManager().disablePlugin(IP.getPlugin()); // disable plugin since data handling without db will go horribly wrong
-        }
+        // 5.0.0
+        sendUpdateSuppressed("ALTER TABLE `%soptions` DROP COLUMN `useDifficulty`;".formatted(Option.SQL_PREFIX));
+        sendUpdateSuppressed("ALTER TABLE `%soptions` DROP COLUMN `useStructure`;".formatted(Option.SQL_PREFIX));
     }
 
-    private void validateConnection() {
+    // runs action in a single transaction, which is rolled back if action fails
+    private Void transaction(ConnectionPool.Pooled connection, SQLAction action) throws SQLException {
+        connection.connection.setAutoCommit(false);
+
         try {
-            if (!connection.isValid(10)) {
-                connect();
+            action.run();
+
+            connection.connection.commit();
+        } catch (SQLException ex) {
+            try {
+                connection.connection.rollback();
+            } catch (SQLException ignored) {
+
             }
-        } catch (Exception ex) {
-            IP.logging().severe("Error while trying to reconnect to MySQL" + ex);
+            throw ex;
+        } finally {
+            connection.connection.setAutoCommit(true);
         }
-    }
 
-    // send query and get result
-    private ResultSet sendQuery(String sql) {
-        validateConnection();
+        return null;
+    }
 
+    // send update without values
+    private void sendUpdate(String sql) {
         try {
-            return connection.prepareStatement(sql).executeQuery();
+            pool.use(connection -> {
+                try (Statement statement = connection.connection.createStatement()) {
+                    return statement.executeUpdate(sql);
+                }
+            });
         } catch (SQLException ex) {
             IP.logging().severe("Error while sending query %s".formatted(sql) + ex);
-            return null;
         }
     }
 
-    // send update
-    private void sendUpdate(String sql) {
-        validateConnection();
+    // if query throws an error, ignore it
+    private void sendUpdateSuppressed(String sql) {
+        try {
+            pool.use(connection -> {
+                try (Statement statement = connection.connection.createStatement()) {
+                    return statement.executeUpdate(sql);
+                }
+            });
+        } catch (SQLException ignored) {
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ex) {
-            IP.logging().severe("Error while sending query %s".formatted(sql) + ex);
         }
     }
 
-    // if query throws an error, ignore it
-    private void sendUpdateSuppressed(String sql) {
-        validateConnection();
+    @FunctionalInterface
+    private interface SQLAction {
 
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.executeUpdate();
-        } catch (SQLException ignored) {
+        void run() throws SQLException;
+
+    }
+
+    /**
+     * The syntax that differs between supported databases.
+     */
+    enum Dialect {
+
+        MYSQL("CHARSET = utf8 ENGINE = InnoDB") {
+            @Override
+            String upsert(String... columns) {
+                return "ON DUPLICATE KEY UPDATE " + String.join(", ", Arrays.stream(columns)
+                        .map(column -> "%s = VALUES(%s)".formatted(column, column))
+                        .toList());
+            }
+        },
+
+        SQLITE("") {
+            @Override
+            String upsert(String... columns) {
+                return "ON CONFLICT (uuid) DO UPDATE SET " + String.join(", ", Arrays.stream(columns)
+                        .map(column -> "%s = excluded.%s".formatted(column, column))
+                        .toList());
+            }
+        };
 
+        /**
+         * The options appended to every table definition.
+         */
+        final String tableOptions;
+
+        Dialect(String tableOptions) {
+            this.tableOptions = tableOptions;
         }
+
+        /**
+         * @param columns The columns to update.
+         * @return The clause that turns an insert into an update of columns when the uuid already exists.
+         */
+        abstract String upsert(String... columns);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package dev.efnilite.ip.storage;
+
+import dev.efnilite.ip.IP;
+
+/**
+ * <p>SQLite storage manager, which keeps all data in a single local file.</p>
+ * <p>Uses the same tables and migrations as {@link StorageSQL}, so it can also be used to try the SQL storage
+ * without a MySQL server. The database is opened in write-ahead log mode, so reads never wait on writes.</p>
+ *
+ * @since 5.1.0
+ */
+public final class StorageSQLite extends StorageSQL {
+
+    /**
+     * The maximum amount of open connections. SQLite only allows one writer at a time, so more only helps reads.
+     */
+    private static final int POOL_SIZE = 4;
+
+    public StorageSQLite() {
+        super(createPool(), Dialect.SQLITE);
+
+        IP.logging().info("Opened SQLite database");
+    }
+
+    private static ConnectionPool createPool() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException ex) {
+            IP.logging().severe("Could not find SQLite driver" + ex);
+        }
+
+        String file = IP.getInFolder("storage.db").getAbsolutePath();
+
+        return new ConnectionPool("jdbc:sqlite:" + file, null, null, POOL_SIZE,
+                "PRAGMA journal_mode = WAL;",
+                "PRAGMA synchronous = NORMAL;", // safe in wal mode, only the last transactions may be lost on power loss
+                "PRAGMA busy_timeout = 5000;");
+    }
+}
@@ -0,0 +1,145 @@
+package dev.efnilite.ip.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>A compiled discrete probability distribution, which can be sampled in constant time without allocating.</p>
+ * <p>Uses Vose's alias method. Compiling takes linear time, so distributions should be compiled once and reused.</p>
+ *
+ * @param <K> The key type.
+ * @since 5.1.0
+ */
+public final class Distribution<K> {
+
+    private final Object[] keys;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    private Distribution(Object[] keys, double[] probabilities, int[] aliases) {
+        this.keys = keys;
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+    }
+
+    /**
+     * Compiles a distribution. Keys with a weight of 0 are never selected.
+     * If all weights are 0, the first key is always selected.
+     *
+     * @param weights A map where each key is mapped to a weight. Weights don't have to add up to 1.
+     * @param <K>     The key type.
+     * @return The compiled distribution.
+     */
+    @NotNull
+    public static <K> Distribution<K> of(@NotNull Map<K, Double> weights) {
+        if (weights.isEmpty()) {
+            throw new NoSuchElementException("No elements in distribution map");
+        }
+
+        int n = weights.size();
+        Object[] keys = new Object[n];
+        double[] scaled = new double[n];
+
+        double total = 0;
+        int i = 0;
+        for (Map.Entry<K, Double> entry : weights.entrySet()) {
+            keys[i] = entry.getKey();
+            scaled[i] = Math.max(0, entry.getValue());
+            total += scaled[i];
+            i++;
+        }
+
+        if (total == 0) {
+            return new Distribution<>(new Object[]{keys[0]}, new double[]{1}, new int[]{0});
+        }
+
+        double[] probabilities = new double[n];
+        int[] aliases = new int[n];
+
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+
+        for (i = 0; i < n; i++) {
+            scaled[i] = scaled[i] * n / total;
+
+            (scaled[i] < 1 ? small : large).push(i);
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+
+            (scaled[more] < 1 ? small : large).push(more);
+        }
+
+        // remaining items only differ from 1 due to rounding errors
+        while (!large.isEmpty()) {
+            int index = large.pop();
+            probabilities[index] = 1;
+            aliases[index] = index;
+        }
+        while (!small.isEmpty()) {
+            int index = small.pop();
+            probabilities[index] = 1;
+            aliases[index] = index;
+        }
+
+        return new Distribution<>(keys, probabilities, aliases);
+    }
+
+    /**
+     * @return A random key, based on the weights.
+     */
+    @NotNull
+    public K sample() {
+        return sample(ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param random The random generator to use.
+     * @return A random key, based on the weights.
+     */
+    @NotNull
+    public K sample(@NotNull RandomGenerator random) {
+        return get(sampleIndex(random));
+    }
+
+    /**
+     * @param random The random generator to use.
+     * @return The index of a random key, based on the weights.
+     * @see #get(int)
+     */
+    public int sampleIndex(@NotNull RandomGenerator random) {
+        int column = random.nextInt(keys.length);
+
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+
+    /**
+     * @param index The index.
+     * @return The key at index.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public K get(int index) {
+        return (K) keys[index];
+    }
+
+    /**
+     * @return The amount of keys.
+     */
+    public int size() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,161 @@
+package dev.efnilite.ip.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive longs to primitive ints.
+ * Avoids boxing for maps that are queried very often, like block position lookups.
+ *
+ * @since 5.1.0
+ */
+public final class LongIntMap {
+
+    /**
+     * The value returned when a key is not present.
+     */
+    public static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param expected The expected maximum amount of entries.
+     */
+    public LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @param key The key.
+     * @return The value mapped to key, or {@link #MISSING} if there is none.
+     */
+    public int get(long key) {
+        int slot = slot(key);
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return MISSING;
+    }
+
+    /**
+     * Maps key to value, replacing any previous value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(long key, int value) {
+        int slot = slot(key);
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (++size > (mask + 1) / 2) {
+            resize();
+        }
+    }
+
+    /**
+     * Removes key from this map.
+     *
+     * @param key The key.
+     * @return The value that was mapped to key, or {@link #MISSING} if there was none.
+     */
+    public int remove(long key) {
+        int slot = slot(key);
+
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                int value = values[slot];
+                shift(slot);
+                size--;
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return MISSING;
+    }
+
+    /**
+     * @return The amount of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // backward shift deletion, keeps probe sequences intact without tombstones
+    private void shift(int slot) {
+        int last = slot;
+        int next = (slot + 1) & mask;
+
+        while (used[next]) {
+            int ideal = slot(keys[next]);
+
+            // move the entry back if its ideal slot isn't between last (exclusive) and next (inclusive)
+            if (last <= next ? (ideal <= last || ideal > next) : (ideal <= last && ideal > next)) {
+                keys[last] = keys[next];
+                values[last] = values[next];
+                last = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        used[last] = false;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -9,13 +9,11 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public final class Probs {
 
-    private static final ThreadLocalRandom random = ThreadLocalRandom.current();
-
     /**
      * @return A random chance with range 0 (inclusive) to 1 (exclusive).
      */
     public static double random() {
-        return random.nextDouble(1);
+        return ThreadLocalRandom.current().nextDouble(1);
     }
 
     /**
@@ -0,0 +1,224 @@
+package dev.efnilite.ip.world;
+
+import dev.efnilite.ip.IP;
+import dev.efnilite.ip.config.Option;
+import dev.efnilite.ip.generator.BlockHistory;
+import dev.efnilite.ip.session.Session;
+import dev.efnilite.ip.util.LongIntMap;
+import dev.efnilite.vilib.util.Task;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * <p>Clears blocks of sessions in bulk without causing tick spikes.</p>
+ * <p>Pending removals are grouped per chunk and applied chunk by chunk, while staying within {@link Option#CLEAR_BUDGET} per tick.
+ * Placing a block at a pending position should cancel its removal with {@link #cancel(Block)}.
+ * Sections are only given back to {@link WorldDivider} once all blocks of a released session have been cleared.</p>
+ *
+ * @since 5.1.0
+ */
+public class BlockClearer {
+
+    /**
+     * Pending removals, grouped per chunk in insertion order.
+     */
+    private static final Map<Long, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * All pending positions. Positions that are no longer in here have been cancelled.
+     */
+    private static final LongIntMap pending = new LongIntMap(1024);
+
+    /**
+     * The amount of groups per session that haven't been cleared yet.
+     */
+    private static final Map<Session, Integer> remaining = new HashMap<>();
+
+    /**
+     * Sessions that will be disassociated once their blocks have been cleared.
+     */
+    private static final Set<Session> released = new HashSet<>();
+
+    private static BukkitTask task;
+
+    /**
+     * Queues blocks to be set to air.
+     *
+     * @param session The session the blocks belong to.
+     * @param blocks  The blocks.
+     */
+    public static void clear(@NotNull Session session, @NotNull Collection<Block> blocks) {
+        for (Block block : blocks) {
+            clear(session, block);
+        }
+    }
+
+    /**
+     * Queues a block to be set to air.
+     *
+     * @param session The session the block belongs to.
+     * @param block   The block.
+     */
+    public static void clear(@NotNull Session session, @NotNull Block block) {
+        long key = BlockHistory.pack(block);
+
+        if (pending.get(key) != LongIntMap.MISSING) {
+            return;
+        }
+
+        long chunk = ((long) (block.getX() >> 4) << 32) | ((block.getZ() >> 4) & 0xFFFFFFFFL);
+
+        Group group = groups.get(chunk);
+        if (group == null) {
+            group = new Group(block.getWorld(), session);
+            groups.put(chunk, group);
+            remaining.merge(session, 1, Integer::sum);
+        }
+
+        group.add(key);
+        pending.put(key, 1);
+
+        schedule();
+    }
+
+    /**
+     * Cancels the pending removal of a block, if there is one.
+     *
+     * @param block The block.
+     */
+    public static void cancel(@NotNull Block block) {
+        cancel(BlockHistory.pack(block));
+    }
+
+    /**
+     * Cancels the pending removal of a block, if there is one.
+     *
+     * @param key The packed position.
+     * @see BlockHistory#pack(int, int, int)
+     */
+    public static void cancel(long key) {
+        if (pending.size() > 0) {
+            pending.remove(key);
+        }
+    }
+
+    /**
+     * Disassociates a session from its section with {@link WorldDivider#disassociate(Session)}
+     * once all of its pending blocks have been cleared.
+     *
+     * @param session The session.
+     */
+    public static void release(@NotNull Session session) {
+        if (!remaining.containsKey(session)) {
+            WorldDivider.disassociate(session);
+            return;
+        }
+
+        released.add(session);
+    }
+
+    /**
+     * @return The amount of blocks waiting to be cleared.
+     */
+    public static int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Clears all pending blocks immediately. Used on shutdown.
+     */
+    public static void drain() {
+        while (!groups.isEmpty()) {
+            run(Long.MAX_VALUE);
+        }
+    }
+
+    private static void schedule() {
+        if (task != null) {
+            return;
+        }
+
+        task = Task.create(IP.getPlugin())
+            .repeat(1)
+            .execute(() -> {
+                run(Option.CLEAR_BUDGET);
+
+                if (groups.isEmpty()) {
+                    task.cancel();
+                    task = null;
+                }
+            })
+            .run();
+    }
+
+    // clears chunk groups in order until the budget has been used
+    private static void run(long budget) {
+        long start = System.nanoTime();
+
+        Iterator<Group> iterator = groups.values().iterator();
+        while (iterator.hasNext()) {
+            Group group = iterator.next();
+
+            while (group.index < group.size) {
+                long key = group.keys[group.index++];
+
+                if (pending.remove(key) == LongIntMap.MISSING) {
+                    continue; // cancelled
+                }
+
+                group.world.getBlockAt(BlockHistory.unpackX(key), BlockHistory.unpackY(key), BlockHistory.unpackZ(key))
+                        .setType(Material.AIR, false);
+
+                if ((group.index & 63) == 0 && System.nanoTime() - start > budget) {
+                    return;
+                }
+            }
+
+            iterator.remove();
+            finish(group.session);
+        }
+    }
+
+    // releases the session when its last group has been cleared
+    private static void finish(Session session) {
+        int left = remaining.merge(session, -1, Integer::sum);
+
+        if (left > 0) {
+            return;
+        }
+
+        remaining.remove(session);
+
+        if (released.remove(session)) {
+            WorldDivider.disassociate(session);
+        }
+    }
+
+    // pending positions in a single chunk
+    private static class Group {
+
+        private final World world;
+        private final Session session;
+        private long[] keys = new long[64];
+        private int size = 0;
+        private int index = 0;
+
+        private Group(World world, Session session) {
+            this.world = world;
+            this.session = session;
+        }
+
+        private void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+
+            keys[size++] = key;
+        }
+    }
+}